@@ -0,0 +1,92 @@
+package cair.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cair.graph.Graph;
+import cair.graph.PathSearch;
+import cair.graph.SeamCarving;
+import cair.image.Image;
+
+/**
+ * Number of augmenting paths of the <b>Ford-Fulkerson</b> algorithm, with and without the residual edges<br>
+ * The <b>augmentations</b> counter gives the number of augmenting paths per cut.
+ * @see PathSearch#setResidual
+ * @see SeamCarving#fordFulkerson(Graph, PathSearch)
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AugmentationBenchmark {
+
+	/**
+	 * Counters reported along with the time of the benchmark
+	 **/
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Counters {
+
+		public long augmentations;
+
+		public long cuts;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			augmentations = 0;
+			cuts = 0;
+		}
+
+	}
+
+	@Param({"128x128", "256x256"})
+	public String size;
+
+	@Param({"synthetic", "tower"})
+	public String fixture;
+
+	@Param({"true", "false"})
+	public boolean residual;
+
+	private Image image;
+	private Graph graph;
+	private PathSearch search;
+
+	@Setup(Level.Trial)
+	public void read() {
+		image = Fixtures.image(fixture, size);
+		search = new PathSearch(image.getWidth()*image.getHeight() + 2);
+		search.setResidual(residual);
+	}
+
+	@Setup(Level.Invocation)
+	public void build() {
+		graph = SeamCarving.toGraph(image);
+	}
+
+	@Benchmark
+	public List<Integer> fordFulkerson(Counters counters) {
+		long searches = search.searches();
+		List<Integer> cut = SeamCarving.fordFulkerson(graph, search);
+		counters.augmentations += search.searches() - searches - 1;
+		counters.cuts++;
+		return cut;
+	}
+
+}
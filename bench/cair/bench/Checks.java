@@ -0,0 +1,250 @@
+package cair.bench;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import cair.graph.Axis;
+import cair.graph.CsrMaxFlow;
+import cair.graph.DynamicProgrammingSeamFinder;
+import cair.graph.GraphCutSeamFinder;
+import cair.graph.MaxFlow;
+import cair.graph.PushRelabel;
+import cair.graph.PyramidSeamFinder;
+import cair.graph.SeamCarving;
+import cair.graph.SeamFinder;
+import cair.graph.Solver;
+import cair.graph.TiledSeamFinder;
+import cair.image.Image;
+
+/**
+ * Self-checking run comparing the optimized paths of the seam carving with their reference on the fixtures<br>
+ * Unlike the benchmarks it does not need JMH : each check prints one line, and the program exits with the status 1
+ * if one of them fails. The checks are :
+ * <ul>
+ * <li>every maximum flow algorithm, cold or warm started, finds a seam of the energy of the dynamic programming seam,
+ * when the seams of an axis are removed one after the other, after searches of several seams, and when the axes alternate</li>
+ * <li>with several seams per search, the warm started solvers give the same image as the cold started ones</li>
+ * <li>the lazy removal of the columns gives the same image as the removal shifting the pixels</li>
+ * <li>the seams found by one search of the dynamic programming are connected and can be removed one after the other</li>
+ * <li>the pyramid and the strips give connected seams, of at least the lowest energy</li>
+ * </ul>
+ * @see Fixtures
+ **/
+public class Checks {
+
+	/**
+	 * Number of seams removed by each check
+	 **/
+	public static final int SEAMS = 8;
+
+	private static final String[] FIXTURES = {"synthetic", "tower"};
+	private static final String[] SIZES = {"64x48", "91x90", "120x90"};
+
+	private static int failures;
+
+	private Checks() {
+	}
+
+	public static void main(String[] args) {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (String fixture : FIXTURES) {
+				for (String size : SIZES) {
+					for (Axis axis : Axis.values()) {
+						solvers("solver", fixture, size, new Axis[] {axis}, 1, pool);
+						solvers("after batches of 4 seams, solver", fixture, size, new Axis[] {axis}, 4, pool);
+						warmBatches(fixture, size, axis);
+						multipleSeams(fixture, size, axis);
+						approximations(fixture, size, axis, pool);
+					}
+					solvers("alternating the axes, solver", fixture, size, Axis.values(), 1, pool);
+					lazyRemoval(fixture, size);
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+		System.out.println(failures + " failure(s)");
+		System.exit(failures == 0 ? 0 : 1);
+	}
+
+	/*
+	 * Compare the seam of each maximum flow algorithm with the dynamic programming seam, then remove it,
+	 * the axes being taken in turn and each seam being preceded by a search of several seams when batch > 1
+	 */
+	private static void solvers(String check, String fixture, String size, Axis[] axes, int batch, ForkJoinPool pool) {
+		Image image = Fixtures.image(fixture, size);
+		for (Map.Entry<String, SeamFinder> entry : solvers(pool).entrySet()) {
+			DynamicProgrammingSeamFinder reference = new DynamicProgrammingSeamFinder();
+			SeamFinder finder = entry.getValue();
+			String error = null;
+			Image copy = image.copy();
+			for (int n = 0; n < SEAMS && error == null; n++) {
+				Axis axis = axes[n%axes.length];
+				if (batch > 1) {
+					for (int[] seam : finder.find(copy, axis, batch)) {
+						remove(copy, axis, seam, reference, finder);
+					}
+				}
+				int[] expected = reference.find(copy, axis), positions = finder.find(copy, axis);
+				long energy = reference.energy(copy, axis, expected), found = finder.energy(copy, axis, positions);
+				error = invalid(copy, axis, positions);
+				if (error == null && found != energy) {
+					error = "seam " + n + " of energy " + found + " instead of " + energy;
+				}
+				if (error == null) {
+					remove(copy, axis, positions, reference, finder);
+				}
+			}
+			report(check + " " + entry.getKey(), fixture, size, (axes.length == 1) ? axes[0] : null, error);
+		}
+	}
+
+	/*
+	 * Return a seam finder for each maximum flow algorithm, cold and warm started
+	 */
+	private static Map<String, SeamFinder> solvers(ForkJoinPool pool) {
+		Map<String, SeamFinder> finders = new LinkedHashMap<>();
+		for (Solver solver : Solver.values()) {
+			finders.put(solver.name(), new GraphCutSeamFinder(solver.newInstance()));
+		}
+		finders.put("PUSH_RELABEL parallel", new GraphCutSeamFinder(new PushRelabel(pool)));
+		for (Solver solver : new Solver[] {Solver.DINIC, Solver.BOYKOV_KOLMOGOROV, Solver.PUSH_RELABEL}) {
+			MaxFlow maxFlow = solver.newInstance();
+			((CsrMaxFlow) maxFlow).setWarmStart(true);
+			finders.put(solver.name() + " warm", new GraphCutSeamFinder(maxFlow));
+		}
+		return finders;
+	}
+
+	private static void remove(Image image, Axis axis, int[] positions, SeamFinder... finders) {
+		axis.remove(image, positions);
+		for (SeamFinder finder : finders) {
+			finder.seamRemoved(image, axis, positions);
+		}
+	}
+
+	/*
+	 * Compare the images reduced with several seams per search by the cold and the warm started solvers,
+	 * the source side of the minimum cut being the same for every maximum flow
+	 */
+	private static void warmBatches(String fixture, String size, Axis axis) {
+		for (Solver solver : new Solver[] {Solver.DINIC, Solver.BOYKOV_KOLMOGOROV, Solver.PUSH_RELABEL}) {
+			Image cold = Fixtures.image(fixture, size), warm = Fixtures.image(fixture, size);
+			MaxFlow maxFlow = solver.newInstance();
+			((CsrMaxFlow) maxFlow).setWarmStart(true);
+			SeamCarving.contentAwareResizing(cold, 2*SEAMS, axis, 4, new GraphCutSeamFinder(solver.newInstance()), i -> {});
+			SeamCarving.contentAwareResizing(warm, 2*SEAMS, axis, 4, new GraphCutSeamFinder(maxFlow), i -> {});
+			report("4 seams per search, " + solver + " warm", fixture, size, axis, same(cold, warm) ? null : "the images differ");
+		}
+	}
+
+	/*
+	 * Remove the seams found by one search of the dynamic programming one after the other
+	 */
+	private static void multipleSeams(String fixture, String size, Axis axis) {
+		Image image = Fixtures.image(fixture, size);
+		int[][] seams = new DynamicProgrammingSeamFinder().find(image, axis, SEAMS);
+		String error = (seams.length == 0 || seams.length > SEAMS) ? seams.length + " seams for " + SEAMS : null;
+		for (int n = 0; n < seams.length && error == null; n++) {
+			error = invalid(image, axis, seams[n]);
+			axis.remove(image, seams[n]);
+		}
+		report("multiple seams", fixture, size, axis, error);
+	}
+
+	/*
+	 * Check that the approximate seam finders give connected seams whose energy is not below the lowest one
+	 */
+	private static void approximations(String fixture, String size, Axis axis, ForkJoinPool pool) {
+		Map<String, SeamFinder> finders = new LinkedHashMap<>();
+		finders.put("pyramid", new PyramidSeamFinder(Solver.BOYKOV_KOLMOGOROV, 1));
+		finders.put("strips", new TiledSeamFinder(Solver.BOYKOV_KOLMOGOROV::newInstance, 16, 4, pool));
+		for (Map.Entry<String, SeamFinder> entry : finders.entrySet()) {
+			Image image = Fixtures.image(fixture, size);
+			DynamicProgrammingSeamFinder reference = new DynamicProgrammingSeamFinder();
+			long lowest = 0, total = 0;
+			String error = null;
+			for (int n = 0; n < SEAMS && error == null; n++) {
+				int[] positions = entry.getValue().find(image, axis);
+				error = invalid(image, axis, positions);
+				if (error == null) {
+					lowest += reference.energy(image, axis, reference.find(image, axis));
+					total += entry.getValue().energy(image, axis, positions);
+					axis.remove(image, positions);
+					reference.seamRemoved(image, axis, positions);
+					entry.getValue().seamRemoved(image, axis, positions);
+				}
+			}
+			if (error == null && total < lowest) {
+				error = "energy " + total + " below the lowest energy " + lowest;
+			}
+			report(entry.getKey() + String.format(Locale.ROOT, " (%.2f x the lowest energy)", (double) total/Math.max(1, lowest)), fixture, size, axis, error);
+		}
+	}
+
+	/*
+	 * Compare the image reduced with the lazy removal of the columns, then of the lines, with the eager removal
+	 */
+	private static void lazyRemoval(String fixture, String size) {
+		Image eager = Fixtures.image(fixture, size), lazy = Fixtures.image(fixture, size);
+		lazy.setLazyThreshold(2*SEAMS);
+		for (Image image : new Image[] {eager, lazy}) {
+			SeamCarving.contentAwareResizing(image, SEAMS, Axis.WIDTH, 1, new DynamicProgrammingSeamFinder(), i -> {});
+			SeamCarving.contentAwareResizing(image, SEAMS, Axis.HEIGHT, 1, new DynamicProgrammingSeamFinder(), i -> {});
+		}
+		report("lazy removal", fixture, size, null, same(eager, lazy) ? null : "the images differ");
+	}
+
+	/*
+	 * Return why the positions are not a seam of the image, null if they are
+	 */
+	private static String invalid(Image image, Axis axis, int[] positions) {
+		if (positions.length != axis.seamLength(image)) {
+			return positions.length + " positions instead of " + axis.seamLength(image);
+		}
+		for (int i = 0; i < positions.length; i++) {
+			if (positions[i] < 0 || positions[i] >= axis.size(image)) {
+				return "position " + positions[i] + " out of the image on the line " + i;
+			}
+			if (i > 0 && Math.abs(positions[i] - positions[i-1]) > 1) {
+				return "disconnected between the lines " + (i - 1) + " and " + i;
+			}
+		}
+		return null;
+	}
+
+	/*
+	 * Compare the pixels of two images through their PPM files
+	 */
+	private static boolean same(Image first, Image second) {
+		try {
+			Path a = Files.createTempFile("cair-check-", ".ppm"), b = Files.createTempFile("cair-check-", ".ppm");
+			try {
+				first.writeRaw(a);
+				second.writeRaw(b);
+				return Files.mismatch(a, b) < 0;
+			} finally {
+				Files.delete(a);
+				Files.delete(b);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void report(String check, String fixture, String size, Axis axis, String error) {
+		if (error != null) {
+			failures++;
+		}
+		System.out.println(((error == null) ? "ok      " : "FAILED  ") + check + ", " + fixture + " " + size
+				+ ((axis == null) ? "" : " " + axis) + ((error == null) ? "" : " : " + error));
+	}
+
+}
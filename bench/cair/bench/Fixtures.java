@@ -0,0 +1,98 @@
+package cair.bench;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.imageio.ImageIO;
+
+import cair.image.Image;
+
+/**
+ * Images used by the benchmarks<br>
+ * A fixture is either <b>synthetic</b> (deterministic noise over smooth gradients)
+ * or <b>tower</b> (<b>example/tower.png</b> scaled to the wanted size, the benchmarks are run from the root of the project).
+ * The PNG file of each fixture is written once in a temporary directory, then read for each trial.
+ **/
+public class Fixtures {
+
+	/**
+	 * Real image used by the <b>tower</b> fixture
+	 **/
+	public static Path TOWER = Paths.get("example", "tower.png");
+
+	private static final Map<String, Path> FILES = new ConcurrentHashMap<>();
+
+	private Fixtures() {
+	}
+
+	/**
+	 * Read a fixture image
+	 * @param fixture <b>synthetic</b> or <b>tower</b>
+	 * @param size Size of the image as <b>width</b>x<b>height</b>
+	 * @return the image
+	 **/
+	public static Image image(String fixture, String size) {
+		try {
+			return Image.read(FILES.computeIfAbsent(fixture + "-" + size, __ -> write(fixture, size)));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static Path write(String fixture, String size) {
+		String[] dimensions = size.split("x");
+		int width = Integer.parseInt(dimensions[0]), height = Integer.parseInt(dimensions[1]);
+		BufferedImage image;
+		try {
+			switch (fixture) {
+			case "synthetic":
+				image = synthetic(width, height);
+				break;
+			case "tower":
+				image = scale(ImageIO.read(TOWER.toFile()), width, height);
+				break;
+			default:
+				throw new IllegalArgumentException("unknown fixture " + fixture);
+			}
+			Path path = Files.createTempFile("cair-" + fixture + "-" + size + "-", "." + Image.EXTENSION);
+			path.toFile().deleteOnExit();
+			ImageIO.write(image, Image.EXTENSION, path.toFile());
+			return path;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static BufferedImage synthetic(int width, int height) {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Random random = new Random(42);
+		int r, g, b;
+		for (int i = 0; i < height; i++) {
+			for (int j = 0; j < width; j++) {
+				r = (255*j/width + random.nextInt(16)) & 0xFF;
+				g = (255*i/height + random.nextInt(16)) & 0xFF;
+				b = ((i/32 + j/32)%2 == 0) ? 64 : 192;
+				image.setRGB(j, i, (r << 16) | (g << 8) | b);
+			}
+		}
+		return image;
+	}
+
+	private static BufferedImage scale(BufferedImage source, int width, int height) {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		graphics.drawImage(source, 0, 0, width, height, null);
+		graphics.dispose();
+		return image;
+	}
+
+}
@@ -0,0 +1,79 @@
+package cair.bench;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cair.graph.Graph;
+import cair.graph.PathSearch;
+import cair.graph.SeamCarving;
+import cair.image.Image;
+
+/**
+ * Benchmark of the breadth-first search and of the <b>Ford-Fulkerson</b> algorithm on the object graph<br>
+ * Each invocation works on a new graph, the larger sizes take minutes per invocation.
+ * @see SeamCarving#bfs
+ * @see PathSearch#bfs
+ * @see SeamCarving#fordFulkerson
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FordFulkersonBenchmark {
+
+	@Param({"256x256"})
+	public String size;
+
+	@Param({"synthetic", "tower"})
+	public String fixture;
+
+	private Image image;
+	private Graph graph;
+	private int[] parents;
+	private PathSearch search;
+
+	@Setup(Level.Trial)
+	public void read() {
+		image = Fixtures.image(fixture, size);
+		search = new PathSearch(image.getWidth()*image.getHeight() + 2);
+	}
+
+	@Setup(Level.Invocation)
+	public void build() {
+		graph = SeamCarving.toGraph(image);
+		parents = new int[graph.vertices()];
+		Arrays.fill(parents, SeamCarving.BFS_PARENT_NONE);
+	}
+
+	@Benchmark
+	public boolean bfs() {
+		return SeamCarving.bfs(graph, 0, graph.vertices() - 1, parents);
+	}
+
+	@Benchmark
+	public boolean searchBfs() {
+		return search.bfs(graph, 0, graph.vertices() - 1);
+	}
+
+	@Benchmark
+	public List<Integer> fordFulkerson() {
+		return SeamCarving.fordFulkerson(graph, search);
+	}
+
+}
@@ -0,0 +1,50 @@
+package cair.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cair.image.Image;
+
+/**
+ * Benchmark of the computation of the gradient of an image
+ * @see Image#horizontalGradient
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GradientBenchmark {
+
+	@Param({"256x256", "1024x768", "1920x1080", "3840x2160"})
+	public String size;
+
+	@Param({"synthetic", "tower"})
+	public String fixture;
+
+	private Image image;
+
+	@Setup(Level.Trial)
+	public void read() {
+		image = Fixtures.image(fixture, size);
+	}
+
+	@Benchmark
+	public int[][] horizontalGradient() {
+		return image.horizontalGradient();
+	}
+
+}
@@ -0,0 +1,64 @@
+package cair.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cair.graph.CsrGraph;
+import cair.graph.Graph;
+import cair.graph.SeamCarving;
+import cair.image.Image;
+
+/**
+ * Benchmark of the generation of the flow graph of an image, with the object graph and with the array graph<br>
+ * The object graph of a 4K image does not fit in a default heap, use <b>-p size=3840x2160 -jvmArgs -Xmx16g</b>.
+ * @see SeamCarving#toGraph
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphBenchmark {
+
+	@Param({"256x256", "1024x768", "1920x1080"})
+	public String size;
+
+	@Param({"synthetic", "tower"})
+	public String fixture;
+
+	private Image image;
+	private int[][] gradient;
+	private CsrGraph graph;
+
+	@Setup(Level.Trial)
+	public void read() {
+		image = Fixtures.image(fixture, size);
+		gradient = image.horizontalGradient();
+		graph = new CsrGraph(image.getWidth()*image.getHeight() + 2, SeamCarving.edges(image.getWidth(), image.getHeight()));
+	}
+
+	@Benchmark
+	public Graph toGraph() {
+		return SeamCarving.toGraph(image);
+	}
+
+	@Benchmark
+	public CsrGraph toCsrGraph() {
+		graph.clear(graph.vertices());
+		return SeamCarving.toGraph(gradient, image.getWidth(), image.getHeight(), graph);
+	}
+
+}
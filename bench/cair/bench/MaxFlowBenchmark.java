@@ -0,0 +1,60 @@
+package cair.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cair.graph.MaxFlow;
+import cair.graph.Solver;
+import cair.image.Image;
+
+/**
+ * Benchmark of the cut of one column with each maximum flow algorithm, graph generation included
+ * @see MaxFlow#minCut
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MaxFlowBenchmark {
+
+	@Param({"256x256", "1024x768"})
+	public String size;
+
+	@Param({"synthetic", "tower"})
+	public String fixture;
+
+	@Param({"DINIC", "BOYKOV_KOLMOGOROV", "PUSH_RELABEL"})
+	public Solver solver;
+
+	private Image image;
+	private int[][] gradient;
+	private MaxFlow maxFlow;
+
+	@Setup(Level.Trial)
+	public void read() {
+		image = Fixtures.image(fixture, size);
+		gradient = image.horizontalGradient();
+		maxFlow = solver.newInstance();
+	}
+
+	@Benchmark
+	public List<Integer> minCut() {
+		return maxFlow.minCut(gradient, image.getWidth(), image.getHeight());
+	}
+
+}
@@ -0,0 +1,67 @@
+package cair.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cair.image.Image;
+
+/**
+ * Benchmark of the removal of a column<br>
+ * The image is read again for each iteration, then each invocation removes a diagonal column,
+ * so an iteration is a batch of {@link #COLUMNS} removals.
+ * @see Image#removePixelsWidth
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, batchSize = RemovalBenchmark.COLUMNS)
+@Measurement(iterations = 10, batchSize = RemovalBenchmark.COLUMNS)
+@Fork(1)
+public class RemovalBenchmark {
+
+	/**
+	 * Number of columns removed in an iteration
+	 **/
+	public static final int COLUMNS = 100;
+
+	@Param({"256x256", "1024x768", "1920x1080", "3840x2160"})
+	public String size;
+
+	@Param({"synthetic", "tower"})
+	public String fixture;
+
+	@Param({"0", "100"})
+	public int lazyThreshold;
+
+	private Image image;
+	private int[] positions;
+
+	@Setup(Level.Iteration)
+	public void read() {
+		image = Fixtures.image(fixture, size);
+		image.setLazyThreshold(lazyThreshold);
+		positions = new int[image.getHeight()];
+	}
+
+	@Benchmark
+	public void removePixelsWidth() {
+		int width = image.getWidth();
+		for (int i = 0; i < positions.length; i++) {
+			positions[i] = (i + width)%(width - 1);
+		}
+		image.removePixelsWidth(positions);
+	}
+
+}
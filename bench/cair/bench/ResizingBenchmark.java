@@ -0,0 +1,59 @@
+package cair.bench;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cair.graph.SeamCarving;
+import cair.image.Image;
+import cair.main.Batch;
+
+/**
+ * End-to-end benchmark of the removal of several columns
+ * @see SeamCarving#contentAwareResizing(Image, int, cair.graph.SeamFinder, java.util.function.IntConsumer)
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ResizingBenchmark {
+
+	@Param({"256x256", "1024x768"})
+	public String size;
+
+	@Param({"synthetic", "tower"})
+	public String fixture;
+
+	@Param({"dynamic-programming", "push-relabel", "boykov-kolmogorov"})
+	public String solver;
+
+	@Param({"10"})
+	public int columns;
+
+	private Image image;
+
+	@Setup(Level.Iteration)
+	public void read() {
+		image = Fixtures.image(fixture, size);
+	}
+
+	@Benchmark
+	public Image contentAwareResizing() {
+		return SeamCarving.contentAwareResizing(image, columns, Batch.seamFinder(solver, false, ForkJoinPool.commonPool()), __ -> {});
+	}
+
+}
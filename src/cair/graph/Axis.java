@@ -0,0 +1,138 @@
+package cair.graph;
+
+import cair.image.Image;
+
+/**
+ * Dimension of the image reduced by a seam<br>
+ * A seam of {@link #WIDTH} contains one pixel of each line and a seam of {@link #HEIGHT} one pixel of each column.
+ * The gradient of {@link #HEIGHT} is stored column by column,
+ * so the same seam finders search the lines like the columns of the transposed image.
+ * @see SeamFinder#find(Image, Axis)
+ **/
+public enum Axis {
+
+	/**
+	 * Reduce the width of the image by removing columns
+	 * @see Image#horizontalGradient
+	 * @see Image#removePixelsWidth
+	 **/
+	WIDTH {
+		@Override
+		public int size(Image image) {
+			return image.getWidth();
+		}
+
+		@Override
+		public int seamLength(Image image) {
+			return image.getHeight();
+		}
+
+		@Override
+		public int[][] gradient(Image image) {
+			return image.horizontalGradient();
+		}
+
+		@Override
+		public void updateGradient(Image image, int[][] gradient, int[] positions) {
+			image.updateHorizontalGradient(gradient, positions);
+		}
+
+		@Override
+		public int[][] grey(Image image) {
+			return image.greyLevels();
+		}
+
+		@Override
+		public void remove(Image image, int[] positions) {
+			image.removePixelsWidth(positions);
+		}
+	},
+
+	/**
+	 * Reduce the height of the image by removing lines
+	 * @see Image#columnGradient
+	 * @see Image#removePixelsHeight
+	 **/
+	HEIGHT {
+		@Override
+		public int size(Image image) {
+			return image.getHeight();
+		}
+
+		@Override
+		public int seamLength(Image image) {
+			return image.getWidth();
+		}
+
+		@Override
+		public int[][] gradient(Image image) {
+			return image.columnGradient();
+		}
+
+		@Override
+		public void updateGradient(Image image, int[][] gradient, int[] positions) {
+			image.updateColumnGradient(gradient, positions);
+		}
+
+		@Override
+		public int[][] grey(Image image) {
+			return image.columnGreyLevels();
+		}
+
+		@Override
+		public void remove(Image image, int[] positions) {
+			image.removePixelsHeight(positions);
+		}
+	};
+
+	/**
+	 * Return the size of the image along this axis
+	 * @param image Input image
+	 * @return the width or the height of the image
+	 **/
+	public abstract int size(Image image);
+
+	/**
+	 * Return the number of pixels of a seam
+	 * @param image Input image
+	 * @return the height of the image for {@link #WIDTH}, its width for {@link #HEIGHT}
+	 **/
+	public abstract int seamLength(Image image);
+
+	/**
+	 * Compute the gradient of the image along this axis<br>
+	 * The result has <b>seamLength(image)</b> arrays of <b>size(image)</b> values.
+	 * @param image Input image
+	 * @return the gradient of the image
+	 * @see Axis#updateGradient
+	 **/
+	public abstract int[][] gradient(Image image);
+
+	/**
+	 * Update the gradient of the image after a seam has been removed
+	 * @param image Image after the removal
+	 * @param gradient Gradient of the image before the removal
+	 * @param positions Positions of the removed pixels
+	 * @see Axis#gradient
+	 * @see Axis#remove
+	 **/
+	public abstract void updateGradient(Image image, int[][] gradient, int[] positions);
+
+	/**
+	 * Return the grey levels of the image, stored like its gradient along this axis<br>
+	 * The result has <b>seamLength(image)</b> arrays of <b>size(image)</b> values.
+	 * @param image Input image
+	 * @return the grey levels of the image
+	 * @see EnergyFunction
+	 **/
+	public abstract int[][] grey(Image image);
+
+	/**
+	 * Remove a seam from the image
+	 * @param image Input image
+	 * @param positions Positions of the pixels to remove, one for each of the <b>seamLength(image)</b> lines or columns
+	 * @see SeamFinder#find(Image, Axis)
+	 **/
+	public abstract void remove(Image image, int[] positions);
+
+}
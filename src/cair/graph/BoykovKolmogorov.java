@@ -0,0 +1,238 @@
+package cair.graph;
+
+import cair.metrics.Metrics;
+
+/**
+ * The <b>Boykov-Kolmogorov</b> maximum flow algorithm<br>
+ * Two search trees are grown in the residual graph, one from the source and one from the sink.
+ * When they touch, the path is augmented and the vertices cut from their tree by a saturated arc
+ * are adopted by another vertex of the same tree. The trees are kept from an augmentation to the next one,
+ * each active vertex continuing the scan of its arcs where it stopped, and the orphans are adopted in the order
+ * they are found, the ones nearest to the roots first.<br>
+ * On the graph of the seam carving the augmenting paths cross the whole image and carry little flow,
+ * so a saturated arc often frees a large part of a tree : on a 600x400 image one column takes about 3 s,
+ * less than 2 times faster than {@link Solver#EDMONDS_KARP} and several times slower than {@link PushRelabel}.
+ * @see Solver#BOYKOV_KOLMOGOROV
+ **/
+public class BoykovKolmogorov extends CsrMaxFlow {
+
+	private static final byte FREE = 0;
+	private static final byte SOURCE_TREE = 1;
+	private static final byte SINK_TREE = 2;
+
+	private static final int TERMINAL = -2;
+	private static final int ORPHAN = -1;
+
+	private byte[] tree = new byte[0];
+	private int[] parent = new int[0];
+	private int[] timestamp = new int[0];
+	private int[] distance = new int[0];
+	private boolean[] active = new boolean[0];
+	private int[] queue = new int[0];
+	private int[] current = new int[0];
+	private int[] orphans = new int[0];
+	private int queueBegin, queueSize, orphanCount, time;
+	private long visits;
+
+	@Override
+	public long maxFlow(CsrGraph g, int source, int sink) {
+		int vertexCount = g.vertices(), bridge;
+		long total = 0;
+		if (tree.length < vertexCount) {
+			tree = new byte[vertexCount];
+			parent = new int[vertexCount];
+			timestamp = new int[vertexCount];
+			distance = new int[vertexCount];
+			active = new boolean[vertexCount];
+			queue = new int[vertexCount];
+			current = new int[vertexCount];
+			orphans = new int[vertexCount];
+		}
+		for (int v = 0; v < vertexCount; v++) {
+			tree[v] = FREE;
+			parent[v] = ORPHAN;
+			timestamp[v] = 0;
+			distance[v] = 0;
+			active[v] = false;
+		}
+		queueBegin = queueSize = orphanCount = time = 0;
+		visits = 0;
+		tree[source] = SOURCE_TREE;
+		tree[sink] = SINK_TREE;
+		for (int terminal : new int[] {source, sink}) {
+			parent[terminal] = TERMINAL;
+			distance[terminal] = 1;
+			activate(g, terminal);
+		}
+		long augmentations = 0;
+		ResizeTask.phase(ResizeTask.Phase.FLOW);
+		while ((bridge = grow(g, vertexCount)) != CsrGraph.NONE) {
+			ResizeTask.checkpoint();
+			augmentations++;
+			time++;
+			total += augment(g, bridge);
+			adopt(g);
+		}
+		Metrics.count(Metrics.Counter.AUGMENTATIONS, augmentations);
+		Metrics.count(Metrics.Counter.VERTICES_VISITED, visits);
+		return total;
+	}
+
+	/*
+	 * Add a vertex to the active vertices, its scan starting again from its first arc
+	 * since the arcs already scanned may have become residual or lead to a freed vertex
+	 */
+	private void activate(CsrGraph g, int vertex) {
+		current[vertex] = g.first(vertex);
+		if (!active[vertex]) {
+			visits++;
+			active[vertex] = true;
+			queue[(queueBegin + queueSize++) % queue.length] = vertex;
+		}
+	}
+
+	/*
+	 * Grow the trees from the active vertices and return the arc from the source tree to the sink tree,
+	 * the active vertex being the front of the queue is kept to continue its scan from the bridge after the augmentation
+	 */
+	private int grow(CsrGraph g, int vertexCount) {
+		int vertex, to;
+		while (queueSize > 0) {
+			vertex = queue[queueBegin];
+			if (tree[vertex] != FREE) {
+				for (int arc = current[vertex]; arc != CsrGraph.NONE; arc = g.next(arc)) {
+					current[vertex] = arc;
+					if (g.residual(tree[vertex] == SOURCE_TREE ? arc : arc ^ 1) <= 0) {
+						continue;
+					}
+					to = g.to(arc);
+					if (tree[to] == FREE) {
+						tree[to] = tree[vertex];
+						parent[to] = arc ^ 1;
+						timestamp[to] = timestamp[vertex];
+						distance[to] = distance[vertex] + 1;
+						activate(g, to);
+					} else if (tree[to] != tree[vertex]) {
+						return (tree[vertex] == SOURCE_TREE) ? arc : arc ^ 1;
+					} else if (timestamp[to] <= timestamp[vertex] && distance[to] > distance[vertex] && parent[to] != TERMINAL) {
+						parent[to] = arc ^ 1;
+						timestamp[to] = timestamp[vertex];
+						distance[to] = distance[vertex] + 1;
+					}
+				}
+			}
+			active[vertex] = false;
+			queueBegin = (queueBegin + 1) % queue.length;
+			queueSize--;
+		}
+		return CsrGraph.NONE;
+	}
+
+	/*
+	 * Send the bottleneck flow through the path containing the bridge arc
+	 * and mark as orphans the vertices whose parent arc is saturated
+	 */
+	private int augment(CsrGraph g, int bridge) {
+		int minimum = g.residual(bridge), v;
+		for (v = g.from(bridge); parent[v] != TERMINAL; v = g.to(parent[v])) {
+			minimum = Math.min(minimum, g.residual(parent[v] ^ 1));
+		}
+		for (v = g.to(bridge); parent[v] != TERMINAL; v = g.to(parent[v])) {
+			minimum = Math.min(minimum, g.residual(parent[v]));
+		}
+		g.push(bridge, minimum);
+		for (v = g.from(bridge); parent[v] != TERMINAL; ) {
+			int arc = parent[v];
+			g.push(arc ^ 1, minimum);
+			if (g.residual(arc ^ 1) == 0) {
+				parent[v] = ORPHAN;
+				orphans[orphanCount++] = v;
+			}
+			v = g.to(arc);
+		}
+		for (v = g.to(bridge); parent[v] != TERMINAL; ) {
+			int arc = parent[v];
+			g.push(arc, minimum);
+			if (g.residual(arc) == 0) {
+				parent[v] = ORPHAN;
+				orphans[orphanCount++] = v;
+			}
+			v = g.to(arc);
+		}
+		return minimum;
+	}
+
+	/*
+	 * Find a new parent in the same tree for each orphan, or free it, the orphans being processed first in first out
+	 */
+	private void adopt(CsrGraph g) {
+		int vertex, to, best, bestDistance, d, j;
+		for (int o = 0; o < orphanCount; o++) {
+			vertex = orphans[o];
+			best = CsrGraph.NONE;
+			bestDistance = Integer.MAX_VALUE;
+			for (int arc = g.first(vertex); arc != CsrGraph.NONE; arc = g.next(arc)) {
+				to = g.to(arc);
+				if (tree[to] != tree[vertex] || g.residual(tree[vertex] == SOURCE_TREE ? arc ^ 1 : arc) <= 0) {
+					continue;
+				}
+				d = origin(g, to);
+				if (d == Integer.MAX_VALUE) {
+					continue;
+				}
+				if (d < bestDistance) {
+					best = arc;
+					bestDistance = d;
+				}
+				for (j = to; timestamp[j] != time; j = g.to(parent[j])) {
+					timestamp[j] = time;
+					distance[j] = d--;
+				}
+			}
+			if (best != CsrGraph.NONE) {
+				parent[vertex] = best;
+				timestamp[vertex] = time;
+				distance[vertex] = bestDistance + 1;
+				continue;
+			}
+			for (int arc = g.first(vertex); arc != CsrGraph.NONE; arc = g.next(arc)) {
+				to = g.to(arc);
+				if (tree[to] != tree[vertex]) {
+					continue;
+				}
+				if (g.residual(tree[vertex] == SOURCE_TREE ? arc ^ 1 : arc) > 0) {
+					activate(g, to);
+				}
+				if (parent[to] >= 0 && g.to(parent[to]) == vertex) {
+					parent[to] = ORPHAN;
+					orphans[orphanCount++] = to;
+				}
+			}
+			tree[vertex] = FREE;
+		}
+		orphanCount = 0;
+	}
+
+	/*
+	 * Return the distance from a vertex to the root of its tree,
+	 * or Integer.MAX_VALUE if the vertex does not come from a root anymore
+	 */
+	private int origin(CsrGraph g, int vertex) {
+		int d = 0;
+		for (int j = vertex; ; j = g.to(parent[j])) {
+			if (timestamp[j] == time) {
+				return d + distance[j];
+			}
+			if (parent[j] == ORPHAN) {
+				return Integer.MAX_VALUE;
+			}
+			d++;
+			if (parent[j] == TERMINAL) {
+				timestamp[j] = time;
+				distance[j] = 1;
+				return d;
+			}
+		}
+	}
+
+}
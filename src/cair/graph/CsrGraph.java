@@ -0,0 +1,256 @@
+package cair.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Flow graph stored in primitive arrays<br>
+ * Every edge added to the graph is stored as two arcs :
+ * the forward arc <b>2k</b> with the capacity of the edge and
+ * the reverse arc <b>2k+1</b> with a capacity of 0, the used flow of an arc being the opposite of the flow of its reverse arc.<br>
+ * Then the reverse arc of <b>e</b> is always <b>e ^ 1</b>.
+ * The arcs leaving a vertex are chained from {@link CsrGraph#first} with {@link CsrGraph#next}.
+ **/
+public class CsrGraph implements FlowGraph {
+
+	/**
+	 * Constant defining the end of the arcs chain of a vertex
+	 **/
+	public static int NONE = -1;
+
+	private final int[] head;
+	private final int[] next;
+	private final int[] target;
+	private final int[] capacity;
+	private final int[] flow;
+	private int vertexCount;
+	private int arcCount;
+	private boolean[] reached = new boolean[0];
+	private int[] queue = new int[0];
+
+	/**
+	 * Construct an empty flow graph
+	 * @param vertexCount Maximum number of vertex in the graph
+	 * @param edgeCount Maximum number of edges in the graph
+	 * @throws IllegalArgumentException vertexCount &lt; 0
+	 * @throws IllegalArgumentException edgeCount &lt; 0
+	 **/
+	public CsrGraph(int vertexCount, int edgeCount) {
+		if (vertexCount < 0) {
+			throw new IllegalArgumentException("vertexCount = " + vertexCount + " must be >= 0");
+		}
+		if (edgeCount < 0) {
+			throw new IllegalArgumentException("edgeCount = " + edgeCount + " must be >= 0");
+		}
+		this.head = new int[vertexCount];
+		this.next = new int[2*edgeCount];
+		this.target = new int[2*edgeCount];
+		this.capacity = new int[2*edgeCount];
+		this.flow = new int[2*edgeCount];
+		clear(vertexCount);
+	}
+
+	/**
+	 * Remove all the edges of the graph and change its number of vertices, the storage is kept
+	 * @param vertexCount New number of vertex in the graph
+	 * @throws IllegalArgumentException vertexCount &lt; 0
+	 * @throws IllegalArgumentException vertexCount &gt; maximum number of vertex given at the construction
+	 * @see CsrGraph#fits
+	 **/
+	public void clear(int vertexCount) {
+		if (vertexCount < 0 || vertexCount > head.length) {
+			throw new IllegalArgumentException("vertexCount = " + vertexCount + " must be >= 0 and <= " + head.length);
+		}
+		this.vertexCount = vertexCount;
+		this.arcCount = 0;
+		Arrays.fill(head, 0, vertexCount, NONE);
+	}
+
+	/**
+	 * Check if the storage of the graph is large enough
+	 * @param vertexCount Number of vertex
+	 * @param edgeCount Number of edges
+	 * @return <b>true</b> if the graph can hold such a number of vertex and edges, <b>false</b> otherwise
+	 * @see CsrGraph#clear
+	 **/
+	public boolean fits(int vertexCount, int edgeCount) {
+		return vertexCount <= head.length && 2L*edgeCount <= target.length;
+	}
+
+	@Override
+	public int vertices() {
+		return vertexCount;
+	}
+
+	/**
+	 * Return the number of arcs in the graph, that is twice the number of edges
+	 * @return the number of arcs in the graph
+	 **/
+	public int arcs() {
+		return arcCount;
+	}
+
+	@Override
+	public void addEdge(int from, int to, int capacity) {
+		if (from < 0 || from >= vertexCount) {
+			throw new IllegalArgumentException("from = " + from + " must be >= 0 and < vertices() = " + vertexCount);
+		}
+		if (to < 0 || to >= vertexCount) {
+			throw new IllegalArgumentException("to = " + to + " must be >= 0 and < vertices() = " + vertexCount);
+		}
+		if (capacity < 0) {
+			throw new IllegalArgumentException("capacity = " + capacity + " must be >= 0");
+		}
+		if (arcCount + 2 > target.length) {
+			throw new IllegalStateException("the graph can not hold more than " + target.length/2 + " edges");
+		}
+		addArc(from, to, capacity);
+		addArc(to, from, 0);
+	}
+
+	private void addArc(int from, int to, int capacity) {
+		int arc = arcCount++;
+		this.target[arc] = to;
+		this.capacity[arc] = capacity;
+		this.flow[arc] = 0;
+		this.next[arc] = head[from];
+		head[from] = arc;
+	}
+
+	/**
+	 * Return the first arc leaving a vertex
+	 * @param vertex The origin vertex
+	 * @return the first arc leaving the vertex, or <b>{@link #NONE}</b> if there is not
+	 * @see CsrGraph#next
+	 **/
+	public int first(int vertex) {
+		return head[vertex];
+	}
+
+	/**
+	 * Return the arc following an arc in the chain of its origin vertex
+	 * @param arc The current arc
+	 * @return the next arc, or <b>{@link #NONE}</b> if there is not
+	 * @see CsrGraph#first
+	 **/
+	public int next(int arc) {
+		return next[arc];
+	}
+
+	/**
+	 * Return the destination vertex of an arc
+	 * @param arc The arc
+	 * @return the destination vertex of the arc
+	 **/
+	public int to(int arc) {
+		return target[arc];
+	}
+
+	/**
+	 * Return the origin vertex of an arc
+	 * @param arc The arc
+	 * @return the origin vertex of the arc
+	 **/
+	public int from(int arc) {
+		return target[arc ^ 1];
+	}
+
+	/**
+	 * Check if an arc is the forward arc of an edge or a reverse arc
+	 * @param arc The arc
+	 * @return <b>true</b> if the arc is the forward arc of an edge, <b>false</b> otherwise
+	 **/
+	public boolean isForward(int arc) {
+		return (arc & 1) == 0;
+	}
+
+	/**
+	 * Return the capacity of an arc, 0 for a reverse arc
+	 * @param arc The arc
+	 * @return the capacity of the arc
+	 **/
+	public int capacity(int arc) {
+		return capacity[arc];
+	}
+
+	/**
+	 * Return the used flow of an arc
+	 * @param arc The arc
+	 * @return the used flow of the arc
+	 **/
+	public int flow(int arc) {
+		return flow[arc];
+	}
+
+	/**
+	 * Return the available value of flow that can go through an arc in the residual graph
+	 * @param arc The arc
+	 * @return the residual capacity of the arc
+	 **/
+	public int residual(int arc) {
+		return capacity[arc] - flow[arc];
+	}
+
+	/**
+	 * Send flow through an arc, the flow of the reverse arc is updated accordingly
+	 * @param arc The arc
+	 * @param value The value of flow to send, at most {@link CsrGraph#residual}
+	 **/
+	public void push(int arc, int value) {
+		flow[arc] += value;
+		flow[arc ^ 1] -= value;
+	}
+
+	/**
+	 * Reset the used flow of all the arcs to 0
+	 **/
+	public void resetFlow() {
+		Arrays.fill(flow, 0, arcCount, 0);
+	}
+
+	/**
+	 * Return the cut <b>(S,T)</b> of the saturated graph where <b>S</b> is the set of vertices reachable from the source in the residual graph<br>
+	 * We send the list of vertices <b>u</b> &isin; <b>S</b>, <b>u</b> &ne; source, such that :
+	 * <b>v</b> &isin; <b>T</b> and (<b>u</b>,<b>v</b>) &isin; <b>A</b>.
+	 * The buffers of the search are kept in the graph and only grow with its number of vertices.
+	 * @param source Source vertex
+	 * @return the list of vertices of <b>S</b> on the cut
+	 * @see SeamCarving#verticesToPixelsPosition
+	 **/
+	public List<Integer> minCut(int source) {
+		ArrayList<Integer> result = new ArrayList<>();
+		if (reached.length < vertexCount) {
+			reached = new boolean[vertexCount];
+			queue = new int[vertexCount];
+		} else {
+			Arrays.fill(reached, 0, vertexCount, false);
+		}
+		int begin = 0, end = 0, vertex;
+		reached[source] = true;
+		queue[end++] = source;
+		while (begin < end) {
+			vertex = queue[begin++];
+			for (int arc = head[vertex]; arc != NONE; arc = next[arc]) {
+				if (!reached[target[arc]] && residual(arc) > 0) {
+					reached[target[arc]] = true;
+					queue[end++] = target[arc];
+				}
+			}
+		}
+		for (int i = 0; i < end; i++) {
+			vertex = queue[i];
+			if (vertex == source) {
+				continue;
+			}
+			for (int arc = head[vertex]; arc != NONE; arc = next[arc]) {
+				if (isForward(arc) && !reached[target[arc]]) {
+					result.add(vertex);
+					break;
+				}
+			}
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,186 @@
+package cair.graph;
+
+import java.util.List;
+
+import cair.metrics.Metrics;
+
+/**
+ * Maximum flow algorithm working on a {@link CsrGraph}<br>
+ * The graph storage is allocated for the first image and reused as long as the next images are not larger,
+ * so removing a column only refills the arrays of the graph.<br>
+ * In warm start mode, the flow of the previous graph is kept after the column of its cut has been removed :
+ * the flow of each arc is copied to the same arc in the new graph, the flow which went through a removed pixel
+ * is copied to the arc which now joins its neighbours, the flow above the new capacity of an arc is cut,
+ * then the conservation of the flow is restored on every vertex, so the algorithm only has to find the flow that is missing.
+ * The caller must only notify the removal of the seam given by the last cut, on the same image and the same axis,
+ * and call {@link CsrMaxFlow#reset} in any other case.
+ * @see CsrMaxFlow#setWarmStart
+ **/
+public abstract class CsrMaxFlow implements MaxFlow {
+
+	private CsrGraph graph;
+	private CsrGraph previous;
+	private int previousWidth;
+	private int previousHeight;
+	private int[] removed;
+	private boolean warmStart;
+	private final FlowBalancer balancer = new FlowBalancer();
+
+	/**
+	 * Enable or disable the warm start mode
+	 * @param warmStart <b>true</b> to keep the flow between two columns, <b>false</b> otherwise
+	 * @see CsrMaxFlow#isWarmStart
+	 **/
+	public void setWarmStart(boolean warmStart) {
+		this.warmStart = warmStart;
+		if (!warmStart) {
+			previous = null;
+			removed = null;
+		}
+	}
+
+	/**
+	 * Check if the warm start mode is enabled
+	 * @return <b>true</b> if the flow is kept between two columns, <b>false</b> otherwise
+	 * @see CsrMaxFlow#setWarmStart
+	 **/
+	public boolean isWarmStart() {
+		return warmStart;
+	}
+
+	/**
+	 * Return the graph of a gradient, reusing the storage of the previous graph if possible
+	 * @param gradient Horizontal gradient of the image
+	 * @param width Width of the image
+	 * @param height Height of the image
+	 * @return the graph of the gradient
+	 * @see SeamCarving#toGraph(int[][], int, int, FlowGraph)
+	 **/
+	protected CsrGraph toGraph(int[][] gradient, int width, int height) {
+		int vertexCount = width*height + 2;
+		int edgeCount = SeamCarving.edges(width, height);
+		if (graph == null || !graph.fits(vertexCount, edgeCount)) {
+			graph = new CsrGraph(vertexCount, edgeCount);
+		} else {
+			graph.clear(vertexCount);
+		}
+		return SeamCarving.toGraph(gradient, width, height, graph);
+	}
+
+	@Override
+	public void reset() {
+		removed = null;
+	}
+
+	@Override
+	public List<Integer> minCut(int[][] gradient, int width, int height) {
+		CsrGraph swap, g;
+		if (warmStart) {
+			swap = graph;
+			graph = previous;
+			previous = swap;
+		}
+		g = toGraph(gradient, width, height);
+		int source = 0, sink = g.vertices() - 1;
+		if (warmStart && previous != null && removed != null && previousWidth == width + 1 && previousHeight == height) {
+			transferFlow(g, width, height);
+		}
+		long start = Metrics.start();
+		Metrics.count(Metrics.Counter.FLOW, maxFlow(g, source, sink));
+		Metrics.stop(Metrics.Phase.FLOW, start);
+		previousWidth = width;
+		previousHeight = height;
+		removed = null;
+		return g.minCut(source);
+	}
+
+	@Override
+	public void seamRemoved(int[] positions) {
+		if (warmStart) {
+			removed = positions.clone();
+		}
+	}
+
+	/*
+	 * Copy the flow of the previous graph to the same arcs of the new graph, within their new capacity,
+	 * then restore the conservation of the flow on every vertex :
+	 * the vertices around the removed column are not the only ones whose arcs may have been cut
+	 */
+	private void transferFlow(CsrGraph g, int width, int height) {
+		int from, to, value;
+		for (int e = 0; e < g.arcs(); e += 2) {
+			from = previousVertex(g.from(e), width, height);
+			to = previousVertex(g.to(e), width, height);
+			value = previousFlow(from, to);
+			if (value < 0) {
+				value = Math.max(previousFlow(from, removedVertex(from, height), to), previousFlow(from, removedVertex(to, height), to));
+			}
+			value = Math.min(value, g.capacity(e));
+			if (value > 0) {
+				g.push(e, value);
+			}
+		}
+		balancer.reset(g.vertices());
+		for (int vertex = 1; vertex < g.vertices() - 1; vertex++) {
+			balancer.measure(g, vertex);
+		}
+		balancer.balance(g, 0, g.vertices() - 1);
+	}
+
+	/*
+	 * Return the flow of the edge between two vertices of the previous graph, or -1 if there is no such edge
+	 */
+	private int previousFlow(int from, int to) {
+		for (int arc = previous.first(from); arc != CsrGraph.NONE; arc = previous.next(arc)) {
+			if (previous.to(arc) == to && previous.isForward(arc)) {
+				return previous.flow(arc);
+			}
+		}
+		return -1;
+	}
+
+	/*
+	 * Return the flow which went from a vertex to another through a removed vertex of the previous graph
+	 */
+	private int previousFlow(int from, int through, int to) {
+		if (through < 0) {
+			return 0;
+		}
+		return Math.min(previousFlow(from, through), previousFlow(through, to));
+	}
+
+	/*
+	 * Return the removed vertex of the previous graph on the line of a vertex, or -1 for the source and the sink
+	 */
+	private int removedVertex(int vertex, int height) {
+		if (vertex == 0 || vertex == previous.vertices() - 1) {
+			return -1;
+		}
+		int i = (vertex - 1)%height;
+		return i + removed[i]*height + 1;
+	}
+
+	/*
+	 * Return the vertex of the previous graph corresponding to a vertex of the new graph
+	 */
+	private int previousVertex(int vertex, int width, int height) {
+		if (vertex == 0) {
+			return 0;
+		}
+		if (vertex == width*height + 1) {
+			return (width + 1)*height + 1;
+		}
+		int i = (vertex - 1)%height, j = (vertex - 1)/height;
+		return i + ((j < removed[i]) ? j : j + 1)*height + 1;
+	}
+
+	/**
+	 * Saturate the graph, starting from the flow already in the graph
+	 * @param g Graph to process
+	 * @param source Source vertex
+	 * @param sink Sink vertex
+	 * @return the value of flow added to the graph
+	 **/
+	public abstract long maxFlow(CsrGraph g, int source, int sink);
+
+}
@@ -0,0 +1,120 @@
+package cair.graph;
+
+import java.util.Arrays;
+
+import cair.metrics.Metrics;
+
+/**
+ * The <b>Dinic</b> maximum flow algorithm<br>
+ * Each phase computes the level of the vertices, their distance to the sink in the residual graph,
+ * with a breadth-first search from the sink, then saturates the level graph with a blocking flow.
+ * The blocking flow is found by a depth-first search from the source which keeps for each vertex
+ * the current arc, so a dead arc is never scanned twice in the same phase.
+ * Since the levels are counted from the sink, every arc of the level graph leads to the sink
+ * and the search only meets the dead ends left by the saturated arcs.<br>
+ * On the graph of the seam carving most augmenting paths have a length of their own, so there are
+ * almost as many phases as augmentations, each one searching most of the graph : a 600x400 image
+ * takes about 3 times less time than with {@link Solver#EDMONDS_KARP}, but several times more than with {@link PushRelabel}.
+ * @see Solver#DINIC
+ **/
+public class Dinic extends CsrMaxFlow {
+
+	private int[] level = new int[0];
+	private int[] current = new int[0];
+	private int[] queue = new int[0];
+	private int[] path = new int[0];
+	private long augmentations, visits;
+
+	@Override
+	public long maxFlow(CsrGraph g, int source, int sink) {
+		int vertexCount = g.vertices();
+		long total = 0;
+		if (level.length < vertexCount) {
+			level = new int[vertexCount];
+			current = new int[vertexCount];
+			queue = new int[vertexCount];
+			path = new int[vertexCount];
+		}
+		augmentations = visits = 0;
+		ResizeTask.phase(ResizeTask.Phase.FLOW);
+		while (levels(g, source, sink)) {
+			for (int v = 0; v < vertexCount; v++) {
+				current[v] = g.first(v);
+			}
+			total += blockingFlow(g, source, sink);
+		}
+		Metrics.count(Metrics.Counter.AUGMENTATIONS, augmentations);
+		Metrics.count(Metrics.Counter.VERTICES_VISITED, visits);
+		return total;
+	}
+
+	/*
+	 * Compute the distance of the vertices to the sink in the residual graph, until the source is reached
+	 */
+	private boolean levels(CsrGraph g, int source, int sink) {
+		int begin = 0, end = 0, vertex, to;
+		Arrays.fill(level, 0, g.vertices(), -1);
+		level[sink] = 0;
+		queue[end++] = sink;
+		while (begin < end) {
+			vertex = queue[begin++];
+			for (int arc = g.first(vertex); arc != CsrGraph.NONE; arc = g.next(arc)) {
+				to = g.to(arc);
+				if (level[to] < 0 && g.residual(arc ^ 1) > 0) {
+					level[to] = level[vertex] + 1;
+					if (to == source) {
+						visits += end + 1;
+						return true;
+					}
+					queue[end++] = to;
+				}
+			}
+		}
+		visits += end;
+		return false;
+	}
+
+	private long blockingFlow(CsrGraph g, int source, int sink) {
+		long total = 0;
+		int depth = 0, vertex = source, arc, minimum, saturated;
+		while (true) {
+			if (vertex == sink) {
+				minimum = Integer.MAX_VALUE;
+				saturated = 0;
+				for (int k = 0; k < depth; k++) {
+					if (g.residual(path[k]) < minimum) {
+						minimum = g.residual(path[k]);
+						saturated = k;
+					}
+				}
+				for (int k = 0; k < depth; k++) {
+					g.push(path[k], minimum);
+				}
+				total += minimum;
+				augmentations++;
+				ResizeTask.checkpoint();
+				depth = saturated;
+				vertex = g.from(path[saturated]);
+				continue;
+			}
+			arc = current[vertex];
+			while (arc != CsrGraph.NONE && (g.residual(arc) <= 0 || level[g.to(arc)] != level[vertex] - 1)) {
+				arc = g.next(arc);
+			}
+			current[vertex] = arc;
+			if (arc != CsrGraph.NONE) {
+				path[depth++] = arc;
+				vertex = g.to(arc);
+			} else {
+				level[vertex] = -1;
+				if (vertex == source) {
+					return total;
+				}
+				arc = path[--depth];
+				vertex = g.from(arc);
+				current[vertex] = g.next(arc);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,159 @@
+package cair.graph;
+
+import java.util.Arrays;
+
+import cair.image.Image;
+
+/**
+ * Find the column or the line to remove with the cumulative energy of the gradient<br>
+ * The cumulative energy of a pixel is its gradient plus the lowest cumulative energy of the three pixels above it,
+ * the column is then found back from the lowest cumulative energy of the last line.
+ * On ties the leftmost pixel is chosen, so the column is the same as the minimum cut of the flow graph.
+ * The search is done in <b>O(width*height)</b> without building any graph.
+ * @see Image#horizontalGradient
+ * @see Image#columnGradient
+ **/
+public class DynamicProgrammingSeamFinder extends GradientSeamFinder {
+
+	private int[] energy = new int[0];
+	private int[] owner = new int[0];
+	private int[] tree = new int[0];
+
+	@Override
+	protected int[] find(int[][] gradient, int width, int height) {
+		int[] positions = new int[height];
+		int best;
+		cumulate(gradient, width, height);
+		best = 0;
+		for (int j = 1; j < width; j++) {
+			if (energy[(height-1)*width + j] < energy[(height-1)*width + best]) {
+				best = j;
+			}
+		}
+		positions[height-1] = best;
+		for (int i = height - 2; i >= 0; i--) {
+			best = Math.max(0, positions[i+1] - 1);
+			for (int j = best + 1; j <= Math.min(width - 1, positions[i+1] + 1); j++) {
+				if (energy[i*width + j] < energy[i*width + best]) {
+					best = j;
+				}
+			}
+			positions[i] = best;
+		}
+		return positions;
+	}
+
+	/**
+	 * Find several seams with a single computation of the cumulative energy<br>
+	 * The seams end on the pixels of the last line of lowest cumulative energy, and each seam is found back
+	 * through the three pixels above, avoiding the pixels of the previous seams and never crossing a previous seam,
+	 * so the seams stay connected once the previous seams are removed.
+	 * A seam which can not be found back up to the first line is dropped,
+	 * so fewer than <b>count</b> seams may be returned.
+	 * The first seam is the one found by {@link #find(int[][], int, int)}.
+	 **/
+	@Override
+	protected int[][] find(int[][] gradient, int width, int height, int count) {
+		int[][] seams = new int[count][];
+		long[] ends = new long[width];
+		int found = 0, position, best, j;
+		cumulate(gradient, width, height);
+		if (owner.length < width*height) {
+			owner = new int[width*height];
+		} else {
+			Arrays.fill(owner, 0, width*height, 0);
+		}
+		for (j = 0; j < width; j++) {
+			ends[j] = ((long) energy[(height-1)*width + j] << 32) | j;
+		}
+		Arrays.sort(ends);
+		int[] seam = new int[height];
+		for (int e = 0; e < width && found < count; e++) {
+			position = (int) ends[e];
+			if (owner[(height-1)*width + position] != 0) {
+				continue;
+			}
+			seam[height-1] = position;
+			best = position;
+			for (int i = height - 2; i >= 0 && best >= 0; i--) {
+				best = -1;
+				for (j = Math.max(0, seam[i+1] - 1); j <= Math.min(width - 1, seam[i+1] + 1); j++) {
+					if (owner[i*width + j] == 0 && !crosses(width, i, seam[i+1], j)
+							&& (best < 0 || energy[i*width + j] < energy[i*width + best])) {
+						best = j;
+					}
+				}
+				seam[i] = best;
+			}
+			if (best < 0) {
+				continue;
+			}
+			found++;
+			for (int i = 0; i < height; i++) {
+				owner[i*width + seam[i]] = found;
+			}
+			seams[found-1] = seam.clone();
+		}
+		seams = Arrays.copyOf(seams, found);
+		shift(seams, width, height);
+		return seams;
+	}
+
+	/*
+	 * Check if going from the pixel below on the line i+1 to the pixel j on the line i crosses a previous seam,
+	 * which happens when a seam goes the opposite way diagonally between the same two lines
+	 */
+	private boolean crosses(int width, int i, int below, int j) {
+		return j != below && owner[(i+1)*width + j] != 0 && owner[(i+1)*width + j] == owner[i*width + below];
+	}
+
+	/*
+	 * Fill the cumulative energy of the gradient
+	 */
+	private void cumulate(int[][] gradient, int width, int height) {
+		int minimum;
+		if (energy.length < width*height) {
+			energy = new int[width*height];
+		}
+		System.arraycopy(gradient[0], 0, energy, 0, width);
+		for (int i = 1; i < height; i++) {
+			for (int j = 0; j < width; j++) {
+				minimum = energy[(i-1)*width + j];
+				if (j > 0) {
+					minimum = Math.min(minimum, energy[(i-1)*width + j - 1]);
+				}
+				if (j < width - 1) {
+					minimum = Math.min(minimum, energy[(i-1)*width + j + 1]);
+				}
+				energy[i*width + j] = gradient[i][j] + minimum;
+			}
+		}
+	}
+
+	/*
+	 * Convert the positions of the seams in the gradient to positions in the gradient
+	 * from which the previous seams have been removed, counting the previous seams on the left of each pixel
+	 * in a Fenwick tree of each line
+	 */
+	private void shift(int[][] seams, int width, int height) {
+		int position, before;
+		if (tree.length < width + 1) {
+			tree = new int[width + 1];
+		}
+		for (int i = 0; i < height; i++) {
+			Arrays.fill(tree, 0, width + 1, 0);
+			for (int[] seam : seams) {
+				position = seam[i];
+				before = 0;
+				for (int k = position; k > 0; k -= k & -k) {
+					before += tree[k];
+				}
+				for (int k = position + 1; k <= width; k += k & -k) {
+					tree[k]++;
+				}
+				seam[i] = position - before;
+			}
+		}
+	}
+
+}
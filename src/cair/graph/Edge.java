@@ -9,6 +9,8 @@ public class Edge {
 	private final int to;
 	private final int capacity;
 	private int used;
+	int index = Graph.NO_EDGE;
+	int reverse = Graph.NO_EDGE;
 	
 	/**
 	 * Construct an edge of the flow graph
@@ -60,6 +62,15 @@ public class Edge {
 		return to;
 	}
 
+	/**
+	 * Return the index of the edge in the graph it has been added to
+	 * @return the index of the edge, or <b>{@link Graph#NO_EDGE}</b> if it has not been added to a graph
+	 * @see Graph#edge
+	 **/
+	public int getIndex() {
+		return index;
+	}
+
 	/**
 	 * Return the capacity of the edge
 	 * @return the capacity of the edge
@@ -0,0 +1,201 @@
+package cair.graph;
+
+import java.util.stream.IntStream;
+
+import cair.image.Image;
+
+/**
+ * Available energy functions<br>
+ * Except for {@link #GRADIENT}, the energy of a pixel is computed from the grey levels of a square window around it,
+ * the pixels outside of the image being replaced by the nearest pixel of the image.
+ * After a removal, a value is only computed again if its window contained a removed pixel,
+ * so only a band of <b>2*radius</b> pixels around the seam is updated.
+ * @see GradientSeamFinder#setEnergyFunction
+ **/
+public enum Energy implements EnergyFunction {
+
+	/**
+	 * Difference between the grey level of a pixel and the mean of its two neighbours along the seam,
+	 * computed by the image itself
+	 * @see Image#horizontalGradient
+	 * @see Image#columnGradient
+	 **/
+	GRADIENT(1) {
+		@Override
+		public int[][] energy(Image image, Axis axis) {
+			return axis.gradient(image);
+		}
+
+		@Override
+		public void update(Image image, Axis axis, int[][] energy, int[] positions) {
+			axis.updateGradient(image, energy, positions);
+		}
+
+		@Override
+		int energy(int[][] grey, int width, int height, int i, int j) {
+			if (j == 0) {
+				return Math.abs(grey[i][0] - grey[i][1]);
+			}
+			if (j == width - 1) {
+				return Math.abs(grey[i][width-1] - grey[i][width-2]);
+			}
+			return Math.abs(grey[i][j] - (grey[i][j-1] + grey[i][j+1])/2);
+		}
+	},
+
+	/**
+	 * Sum of the absolute values of the <b>Sobel</b> derivatives on a 3x3 window, divided by 8
+	 **/
+	SOBEL(1) {
+		@Override
+		int energy(int[][] grey, int width, int height, int i, int j) {
+			int a = grey(grey, width, height, i-1, j-1), b = grey(grey, width, height, i-1, j), c = grey(grey, width, height, i-1, j+1);
+			int d = grey(grey, width, height, i, j-1), f = grey(grey, width, height, i, j+1);
+			int g = grey(grey, width, height, i+1, j-1), h = grey(grey, width, height, i+1, j), k = grey(grey, width, height, i+1, j+1);
+			return (Math.abs((c + 2*f + k) - (a + 2*d + g)) + Math.abs((g + 2*h + k) - (a + 2*b + c)))/8;
+		}
+	},
+
+	/**
+	 * Forward energy : the difference between the grey levels which become neighbours when the pixel is removed<br>
+	 * The two neighbours of the pixel in its line always become neighbours, the pixel of the previous line
+	 * becomes the neighbour of one of them depending on the direction of the seam,
+	 * and as the graph only weights the pixels the cheapest direction is counted.
+	 * The sum is divided by 2.
+	 **/
+	FORWARD(1) {
+		@Override
+		int energy(int[][] grey, int width, int height, int i, int j) {
+			int left = grey(grey, width, height, i, j-1), right = grey(grey, width, height, i, j+1), up = grey(grey, width, height, i-1, j);
+			return (Math.abs(right - left) + Math.min(Math.abs(up - left), Math.abs(up - right)))/2;
+		}
+	},
+
+	/**
+	 * Shannon entropy of the histogram of the grey levels on a 9x9 window, the grey levels being grouped by 16,
+	 * scaled from 0 to 4 bits to 0 to 255
+	 **/
+	ENTROPY(4) {
+		@Override
+		int energy(int[][] grey, int width, int height, int i, int j) {
+			int[] histogram = new int[ENTROPY_BINS];
+			int size = 2*radius + 1, count = size*size;
+			double sum = 0;
+			for (int y = i - radius; y <= i + radius; y++) {
+				for (int x = j - radius; x <= j + radius; x++) {
+					histogram[grey(grey, width, height, y, x)*ENTROPY_BINS/256]++;
+				}
+			}
+			for (int n : histogram) {
+				sum += n*LOG2[n];
+			}
+			return (int) ((LOG2[count] - sum/count)*255/LOG2[ENTROPY_BINS]);
+		}
+	};
+
+	private static final int ENTROPY_BINS = 16;
+	private static final double[] LOG2 = new double[9*9 + 1];
+
+	static {
+		for (int n = 1; n < LOG2.length; n++) {
+			LOG2[n] = Math.log(n)/Math.log(2);
+		}
+	}
+
+	/**
+	 * Number of pixels on each side of a pixel in the window of its energy
+	 **/
+	final int radius;
+
+	private Energy(int radius) {
+		this.radius = radius;
+	}
+
+	/**
+	 * Compute the energy of a pixel from the grey levels
+	 * @param grey Grey levels of the image, as <b>height</b> arrays of at least <b>width</b> values
+	 * @param width Number of values of each line
+	 * @param height Number of lines
+	 * @param i Line of the pixel
+	 * @param j Position of the pixel in the line
+	 * @return the energy of the pixel
+	 **/
+	abstract int energy(int[][] grey, int width, int height, int i, int j);
+
+	/*
+	 * Return the grey level of the nearest pixel of the image
+	 */
+	private static int grey(int[][] grey, int width, int height, int i, int j) {
+		return grey[Math.max(0, Math.min(height - 1, i))][Math.max(0, Math.min(width - 1, j))];
+	}
+
+	@Override
+	public int[][] energy(Image image, Axis axis) {
+		return energy(axis.grey(image), axis.size(image), axis.seamLength(image));
+	}
+
+	/**
+	 * Compute the energy of every pixel from the grey levels, the lines being computed in parallel for large images
+	 * @param grey Grey levels of the image, as <b>height</b> arrays of at least <b>width</b> values
+	 * @param width Number of values of each line
+	 * @param height Number of lines
+	 * @return the energy, as <b>height</b> arrays of <b>width</b> values
+	 * @see Image#PARALLEL_THRESHOLD
+	 **/
+	public int[][] energy(int[][] grey, int width, int height) {
+		int[][] energy = new int[height][width];
+		IntStream lines = IntStream.range(0, height);
+		if ((long) width*height >= Image.PARALLEL_THRESHOLD) {
+			lines = lines.parallel();
+		}
+		lines.forEach(i -> {
+			for (int j = 0; j < width; j++) {
+				energy[i][j] = energy(grey, width, height, i, j);
+			}
+		});
+		return energy;
+	}
+
+	@Override
+	public void update(Image image, Axis axis, int[][] energy, int[] positions) {
+		recompute(axis.grey(image), axis.size(image), axis.seamLength(image), energy, positions);
+	}
+
+	/**
+	 * Update the energy after a seam has been removed, from grey levels kept by the caller<br>
+	 * The grey levels are shifted over the removed pixels like the energy,
+	 * so they are not read again from the image for each seam.
+	 * @param grey Grey levels of the image before the removal, as <b>height</b> arrays of more than <b>width</b> values
+	 * @param width Number of values of each line after the removal
+	 * @param height Number of lines
+	 * @param energy Energy of the image before the removal, only the first <b>width</b> values of each line are updated
+	 * @param positions Positions of the removed pixels
+	 * @see Energy#energy(int[][], int, int)
+	 **/
+	public void update(int[][] grey, int width, int height, int[][] energy, int[] positions) {
+		for (int i = 0; i < height; i++) {
+			System.arraycopy(grey[i], positions[i] + 1, grey[i], positions[i], width - positions[i]);
+		}
+		recompute(grey, width, height, energy, positions);
+	}
+
+	/*
+	 * Shift the energy over the removed pixels and compute again the values next to them, from the grey levels after the removal
+	 */
+	private void recompute(int[][] grey, int width, int height, int[][] energy, int[] positions) {
+		int first, last;
+		for (int i = 0; i < height; i++) {
+			System.arraycopy(energy[i], positions[i] + 1, energy[i], positions[i], width - positions[i]);
+			first = positions[i];
+			last = positions[i];
+			for (int k = Math.max(0, i - radius); k <= Math.min(height - 1, i + radius); k++) {
+				first = Math.min(first, positions[k]);
+				last = Math.max(last, positions[k]);
+			}
+			for (int j = Math.max(0, first - radius); j <= Math.min(width - 1, last + radius - 1); j++) {
+				energy[i][j] = energy(grey, width, height, i, j);
+			}
+		}
+	}
+
+}
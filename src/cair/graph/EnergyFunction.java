@@ -0,0 +1,38 @@
+package cair.graph;
+
+import cair.image.Image;
+
+/**
+ * Energy of the pixels of an image, the seams of lowest energy being removed<br>
+ * The energy of an axis is stored like its gradient : <b>axis.seamLength(image)</b> arrays of <b>axis.size(image)</b> values,
+ * the energy of {@link Axis#HEIGHT} being computed on the transposed image.
+ * The values must be between 0 and <b>{@link SeamCarving#INFINITY} - 1</b>, so the edges of infinite capacity are never cut.<br>
+ * The energy is computed once for an image, then only updated around each removed seam.
+ * @see Energy
+ * @see GradientSeamFinder#setEnergyFunction
+ * @see SeamCarving#toGraph(Image, EnergyFunction, FlowGraph)
+ **/
+public interface EnergyFunction {
+
+	/**
+	 * Compute the energy of the image along an axis
+	 * @param image Input image
+	 * @param axis Dimension to reduce
+	 * @return the energy of the image, as <b>axis.seamLength(image)</b> arrays of <b>axis.size(image)</b> values
+	 * @see EnergyFunction#update
+	 **/
+	int[][] energy(Image image, Axis axis);
+
+	/**
+	 * Update the energy of the image after a seam has been removed<br>
+	 * Each line of the energy is shifted over the removed pixel,
+	 * then the values whose neighbourhood contained a removed pixel are computed again.
+	 * @param image Image after the removal
+	 * @param axis Dimension reduced
+	 * @param energy Energy of the image before the removal, only the first <b>axis.size(image)</b> values of each line are updated
+	 * @param positions Positions of the removed pixels
+	 * @see EnergyFunction#energy
+	 **/
+	void update(Image image, Axis axis, int[][] energy, int[] positions);
+
+}
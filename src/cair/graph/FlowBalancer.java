@@ -0,0 +1,88 @@
+package cair.graph;
+
+/**
+ * Turn a flow which does not respect the conservation into a valid flow<br>
+ * The vertices with more incoming than outgoing flow cancel some of their incoming flow,
+ * the vertices with more outgoing than incoming flow cancel some of their outgoing flow,
+ * which moves the difference to their neighbours until it reaches the source or the sink.
+ * Every step decreases the flow of an arc, so the process ends.
+ **/
+class FlowBalancer {
+
+	private int[] excess = new int[0];
+	private int[] stack = new int[0];
+	private boolean[] queued = new boolean[0];
+	private int count;
+
+	/**
+	 * Prepare the buffers for a graph
+	 * @param vertexCount Number of vertices of the graph
+	 **/
+	void reset(int vertexCount) {
+		if (excess.length < vertexCount) {
+			excess = new int[vertexCount];
+			stack = new int[vertexCount];
+			queued = new boolean[vertexCount];
+		}
+		count = 0;
+	}
+
+	/**
+	 * Add to the difference between the incoming and the outgoing flow of a vertex
+	 * @param vertex The vertex
+	 * @param value Value to add, positive for an excess and negative for a deficit
+	 **/
+	void add(int vertex, int value) {
+		excess[vertex] += value;
+		if (excess[vertex] != 0 && !queued[vertex]) {
+			queued[vertex] = true;
+			stack[count++] = vertex;
+		}
+	}
+
+	/**
+	 * Add the difference between the incoming and the outgoing flow of a vertex, read from the graph
+	 * @param g Graph
+	 * @param vertex The vertex
+	 **/
+	void measure(CsrGraph g, int vertex) {
+		int value = 0;
+		for (int arc = g.first(vertex); arc != CsrGraph.NONE; arc = g.next(arc)) {
+			value -= g.flow(arc);
+		}
+		add(vertex, value);
+	}
+
+	/**
+	 * Cancel flow until every vertex but the source and the sink respects the conservation
+	 * @param g Graph
+	 * @param source Source vertex
+	 * @param sink Sink vertex
+	 **/
+	void balance(CsrGraph g, int source, int sink) {
+		int vertex, to, value;
+		while (count > 0) {
+			vertex = stack[--count];
+			queued[vertex] = false;
+			if (vertex == source || vertex == sink) {
+				excess[vertex] = 0;
+				continue;
+			}
+			for (int arc = g.first(vertex); arc != CsrGraph.NONE && excess[vertex] != 0; arc = g.next(arc)) {
+				to = g.to(arc);
+				if (excess[vertex] > 0 && g.flow(arc) < 0) {
+					value = Math.min(excess[vertex], -g.flow(arc));
+					g.push(arc, value);
+					excess[vertex] -= value;
+					add(to, value);
+				} else if (excess[vertex] < 0 && g.flow(arc) > 0) {
+					value = Math.min(-excess[vertex], g.flow(arc));
+					g.push(arc ^ 1, value);
+					excess[vertex] += value;
+					add(to, -value);
+				}
+			}
+		}
+	}
+
+}
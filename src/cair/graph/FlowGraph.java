@@ -0,0 +1,42 @@
+package cair.graph;
+
+/**
+ * Flow graph which can be filled by the graph generation of the seam carving
+ * @see SeamCarving#toGraph(cair.image.Image, FlowGraph)
+ **/
+public interface FlowGraph {
+
+	/**
+	 * Return the number of vertices in the graph
+	 * @return the number of vertices in the graph
+	 **/
+	int vertices();
+
+	/**
+	 * Add an edge with no used flow to the graph
+	 * @param from Origin vertex of the edge
+	 * @param to Destination vertex of the edge
+	 * @param capacity Capacity of the edge
+	 * @throws IllegalArgumentException from &lt; 0
+	 * @throws IllegalArgumentException from &ge; vertices()
+	 * @throws IllegalArgumentException to &lt; 0
+	 * @throws IllegalArgumentException to &ge; vertices()
+	 * @throws IllegalArgumentException capacity &lt; 0
+	 **/
+	void addEdge(int from, int to, int capacity);
+
+	/**
+	 * Add an edge and the edge going in the opposite direction, both with no used flow<br>
+	 * A graph pairing the opposite edges can pair them directly instead of searching the opposite edge.
+	 * @param from Origin vertex of the first edge
+	 * @param to Destination vertex of the first edge
+	 * @param capacity Capacity of the first edge
+	 * @param reverseCapacity Capacity of the edge from <b>to</b> to <b>from</b>
+	 * @see FlowGraph#addEdge
+	 **/
+	default void addEdges(int from, int to, int capacity, int reverseCapacity) {
+		addEdge(from, to, capacity);
+		addEdge(to, from, reverseCapacity);
+	}
+
+}
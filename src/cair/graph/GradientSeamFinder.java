@@ -0,0 +1,180 @@
+package cair.graph;
+
+import java.util.Arrays;
+
+import cair.image.Image;
+import cair.metrics.Metrics;
+
+/**
+ * Seam finder working on the gradient of the image, or on the energy computed by another energy function<br>
+ * The gradient of each axis is computed once, then after each removed column or line
+ * only the values next to the removed pixels are computed again.<br>
+ * The energy functions computed from the grey levels get them from a copy kept next to the gradient,
+ * which is reduced with it, so the grey levels of the image are only read once.<br>
+ * Several seams are found from a copy of the gradient, the pixels of each seam being removed from the copy
+ * without computing their neighbours again before the next search.
+ * @see EnergyFunction#energy
+ * @see EnergyFunction#update
+ **/
+public abstract class GradientSeamFinder implements SeamFinder {
+
+	private final Image[] images = new Image[Axis.values().length];
+	private final int[][][] gradients = new int[Axis.values().length][][];
+	private final int[][][] greys = new int[Axis.values().length][][];
+	private final int[] widths = new int[Axis.values().length];
+	private final int[] heights = new int[Axis.values().length];
+	private EnergyFunction energyFunction = Energy.GRADIENT;
+
+	/**
+	 * Change the energy function weighting the pixels, the gradient of the image by default<br>
+	 * The energy of the images is computed again at the next search.
+	 * @param energyFunction Energy function
+	 * @see Energy
+	 **/
+	public void setEnergyFunction(EnergyFunction energyFunction) {
+		this.energyFunction = energyFunction;
+		Arrays.fill(images, null);
+		Arrays.fill(gradients, null);
+		Arrays.fill(greys, null);
+	}
+
+	/**
+	 * Return the energy function weighting the pixels
+	 * @return the energy function
+	 * @see GradientSeamFinder#setEnergyFunction
+	 **/
+	public EnergyFunction getEnergyFunction() {
+		return energyFunction;
+	}
+
+	/**
+	 * Return the gradient of the image along an axis, computed only if the previous one can not be used<br>
+	 * The gradient is the energy given by the energy function of this seam finder.
+	 * @param image Input image
+	 * @param axis Dimension to reduce
+	 * @return the gradient of the image, only the first <b>axis.size(image)</b> values of each line are meaningful
+	 **/
+	protected int[][] gradient(Image image, Axis axis) {
+		int a = axis.ordinal();
+		long start;
+		if (image != images[a] || image.getWidth() != widths[a] || image.getHeight() != heights[a]) {
+			start = Metrics.start();
+			images[a] = image;
+			if (energyFunction instanceof Energy && energyFunction != Energy.GRADIENT) {
+				greys[a] = axis.grey(image);
+				gradients[a] = ((Energy) energyFunction).energy(greys[a], axis.size(image), axis.seamLength(image));
+			} else {
+				greys[a] = null;
+				gradients[a] = energyFunction.energy(image, axis);
+			}
+			Metrics.stop(Metrics.Phase.ENERGY, start);
+			widths[a] = image.getWidth();
+			heights[a] = image.getHeight();
+		}
+		return gradients[a];
+	}
+
+	@Override
+	public int[] find(Image image, Axis axis) {
+		int[][] gradient = gradient(image, axis);
+		long start = Metrics.start();
+		int[] seam = find(gradient, axis.size(image), axis.seamLength(image));
+		Metrics.stop(Metrics.Phase.SEARCH, start);
+		return seam;
+	}
+
+	@Override
+	public int[][] find(Image image, Axis axis, int count) {
+		if (count <= 0) {
+			throw new IllegalArgumentException("count = " + count + " must be > 0");
+		}
+		int width = axis.size(image);
+		int[][] gradient = gradient(image, axis);
+		long start = Metrics.start();
+		int[][] seams = find(gradient, width, axis.seamLength(image), Math.max(1, Math.min(count, width - 1)));
+		Metrics.stop(Metrics.Phase.SEARCH, start);
+		return seams;
+	}
+
+	/**
+	 * Find several seams to remove one after the other from a gradient<br>
+	 * Each seam is searched in a copy of the gradient from which the previous seams have been removed.
+	 * @param gradient Gradient, only the first <b>width</b> values of each line are meaningful, it is not modified
+	 * @param width Number of values of each line of the gradient
+	 * @param height Number of lines of the gradient
+	 * @param count Number of seams to find, lower than <b>width</b>
+	 * @return the seams, each seam being given in the gradient from which the previous seams have been removed
+	 * @see SeamFinder#find(Image, Axis, int)
+	 * @see GradientSeamFinder#seamRemoved(int[])
+	 **/
+	protected int[][] find(int[][] gradient, int width, int height, int count) {
+		int[][] seams = new int[count][], copy = gradient;
+		seams[0] = find(gradient, width, height);
+		for (int s = 1; s < count; s++) {
+			if (copy == gradient) {
+				copy = new int[height][];
+				for (int i = 0; i < height; i++) {
+					copy[i] = Arrays.copyOf(gradient[i], width);
+				}
+			}
+			for (int i = 0; i < height; i++) {
+				System.arraycopy(copy[i], seams[s-1][i] + 1, copy[i], seams[s-1][i], width - 1 - seams[s-1][i]);
+			}
+			width--;
+			seamRemoved(seams[s-1]);
+			seams[s] = find(copy, width, height);
+		}
+		return seams;
+	}
+
+	/**
+	 * Notify the seam finder that a seam has been removed from the copy of the gradient
+	 * while several seams are searched, before the next search<br>
+	 * The copy is only shifted, so the state kept for it must not be used once the search is over.
+	 * @param positions Positions of the removed pixels
+	 * @see GradientSeamFinder#find(int[][], int, int, int)
+	 **/
+	protected void seamRemoved(int[] positions) {
+	}
+
+	/**
+	 * Find the pixels to remove from a gradient, which is the horizontal gradient of an image
+	 * or the vertical gradient of an image seen as its transposed image
+	 * @param gradient Gradient, only the first <b>width</b> values of each line are meaningful
+	 * @param width Number of values of each line of the gradient
+	 * @param height Number of lines of the gradient
+	 * @return the position of the pixel to remove on each line
+	 * @see SeamFinder#find(Image, Axis)
+	 **/
+	protected abstract int[] find(int[][] gradient, int width, int height);
+
+	@Override
+	public long energy(Image image, Axis axis, int[] positions) {
+		int[][] gradient = gradient(image, axis);
+		long energy = 0;
+		for (int i = 0; i < positions.length; i++) {
+			energy += gradient[i][positions[i]];
+		}
+		return energy;
+	}
+
+	@Override
+	public void seamRemoved(Image image, Axis axis, int[] positions) {
+		int a = axis.ordinal();
+		boolean reduced = (axis == Axis.WIDTH)
+				? image.getWidth() == widths[a] - 1 && image.getHeight() == heights[a]
+				: image.getHeight() == heights[a] - 1 && image.getWidth() == widths[a];
+		if (image == images[a] && reduced && axis.size(image) > 1) {
+			long start = Metrics.start();
+			if (greys[a] != null) {
+				((Energy) energyFunction).update(greys[a], axis.size(image), axis.seamLength(image), gradients[a], positions);
+			} else {
+				energyFunction.update(image, axis, gradients[a], positions);
+			}
+			Metrics.stop(Metrics.Phase.ENERGY, start);
+			widths[a] = image.getWidth();
+			heights[a] = image.getHeight();
+		}
+	}
+
+}
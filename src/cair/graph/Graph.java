@@ -6,15 +6,23 @@ import java.io.PrintWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.NoSuchElementException;
 import java.util.stream.Collectors;
 
 /**
  * Flow graph
  **/
-public class Graph {
+public class Graph implements FlowGraph {
+
+	/**
+	 * Index returned when there is no edge
+	 * @see Graph#reverse
+	 **/
+	public static int NO_EDGE = -1;
 
 	private final ArrayList<ArrayList<Edge>> adjacenyList;
+	private final ArrayList<Edge> edgeList = new ArrayList<>();
 
 	/**
 	 * Construct an empty flow graph
@@ -36,22 +44,29 @@ public class Graph {
 	 * @return the number of edges in the graph
 	 * @see Graph#edges
 	 **/
+	@Override
 	public int vertices() {
 		return adjacenyList.size();
 	}
 
 	/**
-	 * Add an edge to the graph
+	 * Add an edge to the graph<br>
+	 * The edge is paired with an opposite edge which is not paired yet, if any.
+	 * The opposite edge is searched among the edges of the end of lowest degree,
+	 * so adding the edges of a vertex of high degree such as the sink stays fast.
 	 * @param edge The edge to add to the graph
 	 * @throws IllegalArgumentException edge.getFrom() &lt; 0
 	 * @throws IllegalArgumentException edge.getFrom() &ge; vertices()
 	 * @throws IllegalArgumentException edge.getTo() &lt; 0
 	 * @throws IllegalArgumentException edge.getTo() &ge; vertices()
+	 * @throws IllegalArgumentException the edge has already been added to a graph
 	 * @see Graph#edges
 	 * @see Graph#adjacent
 	 * @see Graph#vertices
+	 * @see Graph#reverse
 	 * @see Edge#getFrom
 	 * @see Edge#getTo
+	 * @see Edge#getIndex
 	 **/
 	public void addEdge(Edge edge) {
 		if (edge.getFrom() < 0 || edge.getFrom() >= vertices()) {
@@ -60,10 +75,52 @@ public class Graph {
 		if (edge.getTo() < 0 || edge.getTo() >= vertices()) {
 			throw new IllegalArgumentException("edge.to = " + edge.getTo() + " must be >= 0 and < vertices() = " + vertices());
 		}
+		if (edge.index != NO_EDGE) {
+			throw new IllegalArgumentException("edge = " + edge + " must not belong to a graph");
+		}
+		int end = (degree(edge.getFrom()) < degree(edge.getTo())) ? edge.getFrom() : edge.getTo();
+		for (int k = 0; k < adjacenyList.get(end).size() && edge.reverse == NO_EDGE; k++) {
+			Edge e = adjacenyList.get(end).get(k);
+			if (e.getFrom() == edge.getTo() && e.getTo() == edge.getFrom() && e.reverse == NO_EDGE) {
+				e.reverse = edgeList.size();
+				edge.reverse = e.index;
+			}
+		}
+		edge.index = edgeList.size();
+		edgeList.add(edge);
 		adjacenyList.get(edge.getFrom()).add(edge);
 		adjacenyList.get(edge.getTo()).add(edge);
 	}
 
+	/**
+	 * Add an edge with no used flow to the graph
+	 * @param from Origin vertex of the edge
+	 * @param to Destination vertex of the edge
+	 * @param capacity Capacity of the edge
+	 * @see Graph#addEdge(Edge)
+	 **/
+	@Override
+	public void addEdge(int from, int to, int capacity) {
+		addEdge(new Edge(from, to, capacity, 0));
+	}
+
+	/**
+	 * Add an edge and its opposite edge, paired without any search
+	 * @param from Origin vertex of the first edge
+	 * @param to Destination vertex of the first edge
+	 * @param capacity Capacity of the first edge
+	 * @param reverseCapacity Capacity of the edge from <b>to</b> to <b>from</b>
+	 * @see Graph#reverse
+	 **/
+	@Override
+	public void addEdges(int from, int to, int capacity, int reverseCapacity) {
+		Edge edge = new Edge(from, to, capacity, 0), opposite = new Edge(to, from, reverseCapacity, 0);
+		edge.reverse = edgeList.size() + 1;
+		opposite.reverse = edgeList.size();
+		addEdge(edge);
+		addEdge(opposite);
+	}
+
 	/**
 	 * Get an iterator on the edges that start or end to a particular vertex
 	 * @param vertex The starting or eding vertex of the iterated edges
@@ -82,6 +139,34 @@ public class Graph {
 		return adjacenyList.get(vertex);
 	}
 
+	/**
+	 * Return the number of edges that start or end to a particular vertex
+	 * @param vertex The starting or ending vertex of the edges
+	 * @return the number of edges that start or end to the vertex
+	 * @throws IllegalArgumentException vertex &lt; 0 
+	 * @throws IllegalArgumentException vertex &ge; vertices()
+	 * @see Graph#adjacent(int, int)
+	 **/
+	public int degree(int vertex) {
+		if (vertex < 0 || vertex >= vertices()) {
+			throw new IllegalArgumentException("vertex = " + vertex + " must be >= 0 and < vertices() = " + vertices());
+		}
+		return adjacenyList.get(vertex).size();
+	}
+
+	/**
+	 * Get one of the edges that start or end to a particular vertex, without building any intermediate list
+	 * @param vertex The starting or ending vertex of the edge
+	 * @param index Index of the edge, between <b>0</b> and <b>degree(vertex) - 1</b>
+	 * @return the edge
+	 * @throws IndexOutOfBoundsException vertex or index out of range
+	 * @see Graph#degree
+	 * @see Graph#adjacent(int)
+	 **/
+	public Edge adjacent(int vertex, int index) {
+		return adjacenyList.get(vertex).get(index);
+	}
+
 	/**
 	 * Get an iterator on the edges that start from a particular vertex
 	 * @param vertex The starting vertex of the iterated edges
@@ -108,13 +193,82 @@ public class Graph {
 	 * @see Graph#addEdge
 	 **/
 	public Iterable<Edge> edges() {
-		ArrayList<Edge> list = new ArrayList<>();
-		for (int vertex = 0; vertex < vertices(); vertex++) {
-			for (Edge edge : from(vertex)) {
-				list.add(edge);
-			}
+		return Collections.unmodifiableList(edgeList);
+	}
+
+	/**
+	 * Return the number of edges in the graph
+	 * @return the number of edges in the graph
+	 * @see Graph#edge
+	 **/
+	public int edgeCount() {
+		return edgeList.size();
+	}
+
+	/**
+	 * Get an edge from its index
+	 * @param index Index of the edge
+	 * @return the edge
+	 * @throws IndexOutOfBoundsException index &lt; 0 or index &ge; edgeCount()
+	 * @see Edge#getIndex
+	 **/
+	public Edge edge(int index) {
+		return edgeList.get(index);
+	}
+
+	/**
+	 * Get the index of the edge going in the opposite direction of an edge<br>
+	 * Each edge is paired with at most one opposite edge.
+	 * @param index Index of the edge
+	 * @return the index of the opposite edge, or <b>{@link #NO_EDGE}</b> if there is none
+	 * @throws IndexOutOfBoundsException index &lt; 0 or index &ge; edgeCount()
+	 * @see Graph#augment
+	 **/
+	public int reverse(int index) {
+		return edgeList.get(index).reverse;
+	}
+
+	/**
+	 * Send flow through an edge<br>
+	 * The flow used by the opposite edge is cancelled first, then the rest fills the edge.
+	 * @param index Index of the edge
+	 * @param value Value of the flow to send
+	 * @throws IllegalArgumentException value &lt; 0
+	 * @throws IllegalStateException value &gt; free flow of the edge + used flow of the opposite edge
+	 * @see Graph#reverse
+	 * @see Graph#cancel
+	 * @see Edge#fill
+	 **/
+	public void augment(int index, int value) {
+		if (value < 0) {
+			throw new IllegalArgumentException("value = " + value + " must be >= 0");
+		}
+		Edge edge = edgeList.get(index), opposite;
+		int cancelled;
+		if (edge.reverse != NO_EDGE) {
+			opposite = edgeList.get(edge.reverse);
+			cancelled = Math.min(value, opposite.getUsed());
+			opposite.setUsed(opposite.getUsed() - cancelled);
+			value -= cancelled;
+		}
+		edge.fill(value);
+	}
+	
+	/**
+	 * Cancel flow used by an edge, which sends it back from the destination to the origin of the edge
+	 * @param index Index of the edge
+	 * @param value Value of the flow to cancel
+	 * @throws IllegalArgumentException value &lt; 0
+	 * @throws IllegalArgumentException value &gt; used flow of the edge
+	 * @see Graph#augment
+	 * @see Edge#setUsed
+	 **/
+	public void cancel(int index, int value) {
+		if (value < 0) {
+			throw new IllegalArgumentException("value = " + value + " must be >= 0");
 		}
-		return list;
+		Edge edge = edgeList.get(index);
+		edge.setUsed(edge.getUsed() - value);
 	}
 	
 	/**
@@ -125,6 +279,7 @@ public class Graph {
 	 * @throws NoSuchElementException (from,to) &notin; <b>G</b>
 	 * @see Graph#addEdge
 	 * @see Graph#edges
+	 * @see Graph#edge
 	 **/
 	public Edge getEdge(int from, int to) {
 		return adjacenyList.get(from).stream().filter((e) -> e.getTo() == to).findFirst().get();
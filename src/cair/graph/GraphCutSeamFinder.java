@@ -0,0 +1,93 @@
+package cair.graph;
+
+import java.util.Arrays;
+
+import cair.image.Image;
+
+/**
+ * Find the column or the line to remove with a minimum cut of the flow graph generated from the image<br>
+ * The maximum flow algorithm is only told that a seam has been removed when it is the last seam found,
+ * on the same image and the same axis, otherwise its state is reset.
+ * While several seams are searched, it is told about each seam removed from the copy of the gradient,
+ * but its state is reset after the search : the gradient of the image, computed again next to the removed seams,
+ * is not the copy on which the last seam was found.
+ * @see SeamCarving#toGraph
+ * @see MaxFlow#minCut
+ * @see SeamCarving#verticesToPixelsPosition
+ **/
+public class GraphCutSeamFinder extends GradientSeamFinder {
+
+	private final MaxFlow maxFlow;
+	private Image image;
+	private Axis axis;
+	private int[] seam;
+
+	/**
+	 * Construct the seam finder
+	 * @param maxFlow Maximum flow algorithm used to cut the graph
+	 * @see Solver#newInstance
+	 **/
+	public GraphCutSeamFinder(MaxFlow maxFlow) {
+		this.maxFlow = maxFlow;
+	}
+
+	@Override
+	public int[] find(Image image, Axis axis) {
+		search(image, axis);
+		return seam = super.find(image, axis);
+	}
+
+	@Override
+	public int[][] find(Image image, Axis axis, int count) {
+		search(image, axis);
+		int[][] seams = super.find(image, axis, count);
+		if (seams.length > 1) {
+			maxFlow.reset();
+			seam = null;
+		} else {
+			seam = seams[0];
+		}
+		return seams;
+	}
+
+	/*
+	 * Reset the maximum flow algorithm if the search is not on the image and the axis of the previous one
+	 */
+	private void search(Image image, Axis axis) {
+		if (image != this.image || axis != this.axis) {
+			maxFlow.reset();
+			this.image = image;
+			this.axis = axis;
+		}
+	}
+
+	@Override
+	protected int[] find(int[][] gradient, int width, int height) {
+		return SeamCarving.verticesToPixelsPosition(maxFlow.minCut(gradient, width, height), height);
+	}
+
+	@Override
+	protected void seamRemoved(int[] positions) {
+		maxFlow.seamRemoved(positions);
+	}
+
+	@Override
+	public void seamRemoved(Image image, Axis axis, int[] positions) {
+		super.seamRemoved(image, axis, positions);
+		if (image == this.image && axis == this.axis && Arrays.equals(positions, seam)) {
+			maxFlow.seamRemoved(positions);
+		} else {
+			maxFlow.reset();
+		}
+		seam = null;
+	}
+
+	@Override
+	public void reset() {
+		maxFlow.reset();
+		image = null;
+		axis = null;
+		seam = null;
+	}
+
+}
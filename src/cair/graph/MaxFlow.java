@@ -0,0 +1,58 @@
+package cair.graph;
+
+import java.util.List;
+
+import cair.image.Image;
+
+/**
+ * Maximum flow algorithm used to find the cut of the graph generated from an image<br>
+ * An instance may keep buffers between two calls, so it must not be shared between threads.
+ * @see Solver
+ **/
+public interface MaxFlow {
+
+	/**
+	 * Generate the graph of a gradient, saturate it and return the vertices <b>u</b> &isin; <b>S</b> such that :<br>
+	 * <b>v</b> &isin; <b>T</b> and (<b>u</b>,<b>v</b>) &isin; <b>A</b>,
+	 * corresponding of the pixels we can get rid.
+	 * @param gradient Horizontal gradient of the image, only the first <b>width</b> values of each line are read
+	 * @param width Width of the image
+	 * @param height Height of the image
+	 * @return the list of pixels to remove
+	 * @see SeamCarving#toGraph(int[][], int, int, FlowGraph)
+	 * @see SeamCarving#fordFulkerson
+	 * @see SeamCarving#verticesToPixelsPosition
+	 **/
+	List<Integer> minCut(int[][] gradient, int width, int height);
+
+	/**
+	 * Generate the graph of an image, saturate it and return the vertices of the cut
+	 * @param image Input image
+	 * @return the list of pixels to remove
+	 * @see MaxFlow#minCut(int[][], int, int)
+	 * @see Image#horizontalGradient
+	 **/
+	default List<Integer> minCut(Image image) {
+		return minCut(image.horizontalGradient(), image.getWidth(), image.getHeight());
+	}
+
+	/**
+	 * Notify the algorithm that the column of the last cut has been removed from the image,
+	 * so it can start the next search from the state of the previous one
+	 * @param positions Positions of the removed pixels, which must be the pixels of the last cut
+	 * @see CsrMaxFlow#setWarmStart
+	 * @see MaxFlow#reset
+	 **/
+	default void seamRemoved(int[] positions) {
+	}
+
+	/**
+	 * Forget the state of the previous search, so the next one starts from an empty flow<br>
+	 * It must be called when the next graph does not come from the last one without the column of its cut :
+	 * another image, another axis, or another column removed.
+	 * @see MaxFlow#seamRemoved
+	 **/
+	default void reset() {
+	}
+
+}
@@ -0,0 +1,188 @@
+package cair.graph;
+
+import java.util.Arrays;
+
+/**
+ * Reusable state of the breadth-first searches of the <b>Ford-Fulkerson</b> algorithm on a {@link Graph}<br>
+ * The search follows the residual graph : an edge (<b>u</b>,<b>v</b>) can be crossed from <b>u</b> to <b>v</b>
+ * if it is not saturated, and from <b>v</b> to <b>u</b> if it carries flow, which may then be cancelled.<br>
+ * The queue, the parents and the indices of the edges which reached the vertices are preallocated int arrays, and the visited vertices are marked with the number
+ * of the current search instead of clearing the arrays before each search,
+ * so once the arrays are large enough a search does not allocate anything.<br>
+ * An instance must not be shared between threads.
+ * @see SeamCarving#fordFulkerson(Graph, PathSearch)
+ **/
+public class PathSearch {
+
+	private int[] queue;
+	private int[] parents;
+	private int[] incoming;
+	private boolean[] backward;
+	private int[] visited;
+	private int epoch;
+	private boolean residual = true;
+	private long searches;
+	private long visits;
+
+	/**
+	 * Construct the state of the searches
+	 * @param vertexCount Number of vertices of the expected graphs, the arrays grow if a larger graph is searched
+	 * @throws IllegalArgumentException vertexCount &lt; 0
+	 **/
+	public PathSearch(int vertexCount) {
+		if (vertexCount < 0) {
+			throw new IllegalArgumentException("vertexCount = " + vertexCount + " must be >= 0");
+		}
+		queue = new int[vertexCount];
+		parents = new int[vertexCount];
+		incoming = new int[vertexCount];
+		backward = new boolean[vertexCount];
+		visited = new int[vertexCount];
+	}
+
+	/**
+	 * Choose whether the searches cross the edges backward<br>
+	 * Only the residual search finds a minimum cut, so that the seam is the same as with the other solvers :
+	 * the other mode is the search of the first versions of the program, kept to measure the cost of the residual search.
+	 * @param residual <b>true</b> to search the residual graph (default), <b>false</b> to only follow the edges which are not saturated
+	 * (the flow is then never cancelled and the cut may not be minimal)
+	 * @see PathSearch#isResidual
+	 **/
+	public void setResidual(boolean residual) {
+		this.residual = residual;
+	}
+
+	/**
+	 * Check if the searches cross the edges backward
+	 * @return <b>true</b> if the searches follow the residual graph, <b>false</b> otherwise
+	 * @see PathSearch#setResidual
+	 **/
+	public boolean isResidual() {
+		return residual;
+	}
+
+	/**
+	 * Return the number of searches performed since the creation of this instance
+	 * @return the number of searches
+	 * @see PathSearch#bfs
+	 **/
+	public long searches() {
+		return searches;
+	}
+
+	/**
+	 * Return the number of vertices reached by the searches performed since the creation of this instance
+	 * @return the number of reached vertices
+	 * @see PathSearch#bfs
+	 **/
+	public long visits() {
+		return visits;
+	}
+
+	private void start(int vertexCount) {
+		if (visited.length < vertexCount) {
+			queue = new int[vertexCount];
+			parents = new int[vertexCount];
+			incoming = new int[vertexCount];
+			backward = new boolean[vertexCount];
+			visited = new int[vertexCount];
+			epoch = 0;
+		}
+		if (epoch == Integer.MAX_VALUE) {
+			Arrays.fill(visited, 0);
+			epoch = 0;
+		}
+		epoch++;
+		searches++;
+	}
+
+	/**
+	 * Perform a breadth-first search on the residual graph of a flow graph from a root to a target
+	 * @param gitr The graph to browse
+	 * @param root The origin of the path
+	 * @param target The destination of the path
+	 * @return <b>true</b> if the graph is saturated, <b>false</b> otherwise
+	 * @see PathSearch#parent
+	 * @see PathSearch#incoming
+	 * @see PathSearch#isBackward
+	 * @see PathSearch#isVisited
+	 **/
+	public boolean bfs(Graph gitr, int root, int target) {
+		int head = 0, tail = 0, vert, to, degree;
+		boolean reverse;
+		Edge edge;
+		start(gitr.vertices());
+		visited[root] = epoch;
+		parents[root] = SeamCarving.BFS_PARENT_NONE;
+		incoming[root] = Graph.NO_EDGE;
+		queue[tail++] = root;
+		while (head != tail) {
+			vert = queue[head++];
+			if (vert == target) {
+				visits += tail;
+				return false;
+			}
+			degree = gitr.degree(vert);
+			for (int k = 0; k < degree; k++) {
+				edge = gitr.adjacent(vert, k);
+				reverse = edge.getFrom() != vert;
+				if (reverse ? (!residual || edge.getUsed() <= 0) : !edge.isFree()) {
+					continue;
+				}
+				to = reverse ? edge.getFrom() : edge.getTo();
+				if (visited[to] != epoch) {
+					visited[to] = epoch;
+					parents[to] = vert;
+					incoming[to] = edge.getIndex();
+					backward[to] = reverse;
+					queue[tail++] = to;
+				}
+			}
+		}
+		visits += tail;
+		return true;
+	}
+
+	/**
+	 * Check if a vertex has been reached by the last search
+	 * @param vertex The vertex
+	 * @return <b>true</b> if the vertex has been reached, <b>false</b> otherwise
+	 * @see PathSearch#bfs
+	 **/
+	public boolean isVisited(int vertex) {
+		return visited[vertex] == epoch;
+	}
+
+	/**
+	 * Return the parent of a vertex in the last search
+	 * @param vertex The vertex
+	 * @return the parent of the vertex, or <b>{@link SeamCarving#BFS_PARENT_NONE}</b> if it has not been reached or is the root
+	 * @see PathSearch#bfs
+	 **/
+	public int parent(int vertex) {
+		return isVisited(vertex) ? parents[vertex] : SeamCarving.BFS_PARENT_NONE;
+	}
+
+	/**
+	 * Return the index of the edge which reached a vertex in the last search
+	 * @param vertex The vertex
+	 * @return the index of the edge between the parent and the vertex, or <b>{@link Graph#NO_EDGE}</b> if it has not been reached or is the root
+	 * @see PathSearch#bfs
+	 * @see PathSearch#isBackward
+	 * @see Graph#edge
+	 **/
+	public int incoming(int vertex) {
+		return isVisited(vertex) ? incoming[vertex] : Graph.NO_EDGE;
+	}
+
+	/**
+	 * Check if a vertex has been reached by crossing an edge backward in the last search
+	 * @param vertex The vertex
+	 * @return <b>true</b> if the edge which reached the vertex goes from the vertex to its parent, <b>false</b> otherwise
+	 * @see PathSearch#incoming
+	 **/
+	public boolean isBackward(int vertex) {
+		return isVisited(vertex) && backward[vertex];
+	}
+
+}
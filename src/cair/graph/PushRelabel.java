@@ -0,0 +1,240 @@
+package cair.graph;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+import cair.metrics.Metrics;
+
+/**
+ * Parallel <b>push-relabel</b> maximum flow algorithm<br>
+ * The algorithm works by synchronous rounds on all the active vertices (vertices with an excess of flow) :
+ * <ul>
+ * <li>each active vertex pushes its excess through its admissible arcs, the labels being fixed during this step,
+ * so the flow of an arc is only modified by its origin vertex and the active vertices can be processed in parallel</li>
+ * <li>each active vertex which still has an excess is relabeled, the flows being fixed during this step</li>
+ * </ul>
+ * The labels are periodically recomputed exactly by a breadth-first search from the sink (global relabelling).
+ * Once the maximum preflow is found, the remaining excesses are sent back to the source
+ * so the cut is found like with the other algorithms.
+ * @see Solver#PUSH_RELABEL
+ **/
+public class PushRelabel extends CsrMaxFlow {
+
+	/**
+	 * Number of vertices under which a step is not split between the threads
+	 **/
+	public static int SEQUENTIAL_THRESHOLD = 512;
+
+	private final ForkJoinPool pool;
+	private int[] label = new int[0];
+	private int[] excess = new int[0];
+	private int[] active = new int[0];
+	private int[] received = new int[0];
+	private int[] stamp = new int[0];
+	private AtomicIntegerArray added = new AtomicIntegerArray(0);
+	private final AtomicInteger receivedCount = new AtomicInteger();
+	private final FlowBalancer balancer = new FlowBalancer();
+	private int activeCount, round;
+	private long visits;
+
+	/**
+	 * Construct the algorithm using the common thread pool
+	 * @see ForkJoinPool#commonPool
+	 **/
+	public PushRelabel() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Construct the algorithm using a given thread pool
+	 * @param pool Thread pool processing the rounds
+	 **/
+	public PushRelabel(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	@Override
+	public long maxFlow(CsrGraph g, int source, int sink) {
+		int vertexCount = g.vertices(), to;
+		long work = 0;
+		if (label.length < vertexCount) {
+			label = new int[vertexCount];
+			excess = new int[vertexCount];
+			active = new int[vertexCount];
+			received = new int[vertexCount];
+			stamp = new int[vertexCount];
+			added = new AtomicIntegerArray(vertexCount);
+		}
+		for (int v = 0; v < vertexCount; v++) {
+			excess[v] = 0;
+			stamp[v] = 0;
+		}
+		round = 0;
+		visits = 0;
+		ResizeTask.phase(ResizeTask.Phase.FLOW);
+		for (int arc = g.first(source); arc != CsrGraph.NONE; arc = g.next(arc)) {
+			to = g.to(arc);
+			if (g.residual(arc) > 0) {
+				excess[to] += g.residual(arc);
+				g.push(arc, g.residual(arc));
+			}
+		}
+		globalRelabel(g, source, sink);
+		while (activeCount > 0) {
+			if (work > vertexCount) {
+				globalRelabel(g, source, sink);
+				work = 0;
+				continue;
+			}
+			ResizeTask.checkpoint();
+			work += activeCount;
+			round(g, source, sink);
+		}
+		returnExcess(g, source, sink);
+		Metrics.count(Metrics.Counter.VERTICES_VISITED, visits);
+		return excess[sink];
+	}
+
+	/*
+	 * Compute the exact distance to the sink in the residual graph and collect the active vertices
+	 */
+	private void globalRelabel(CsrGraph g, int source, int sink) {
+		int vertexCount = g.vertices(), begin = 0, end = 0, vertex, to;
+		for (int v = 0; v < vertexCount; v++) {
+			label[v] = vertexCount;
+		}
+		label[sink] = 0;
+		active[end++] = sink;
+		while (begin < end) {
+			vertex = active[begin++];
+			for (int arc = g.first(vertex); arc != CsrGraph.NONE; arc = g.next(arc)) {
+				to = g.to(arc);
+				if (label[to] == vertexCount && to != source && g.residual(arc ^ 1) > 0) {
+					label[to] = label[vertex] + 1;
+					active[end++] = to;
+				}
+			}
+		}
+		visits += end;
+		activeCount = 0;
+		for (int v = 0; v < vertexCount; v++) {
+			if (isActive(v, source, sink, vertexCount)) {
+				active[activeCount++] = v;
+			}
+		}
+	}
+
+	private boolean isActive(int vertex, int source, int sink, int vertexCount) {
+		return vertex != source && vertex != sink && excess[vertex] > 0 && label[vertex] < vertexCount;
+	}
+
+	private void round(CsrGraph g, int source, int sink) {
+		int vertexCount = g.vertices(), count = activeCount, v;
+		receivedCount.set(0);
+		parallel(count, i -> push(g, active[i]));
+		parallel(count, i -> relabel(g, active[i]));
+		round++;
+		for (int i = 0, n = receivedCount.get(); i < n; i++) {
+			v = received[i];
+			excess[v] += added.getAndSet(v, 0);
+		}
+		activeCount = 0;
+		collect(active, count, source, sink, vertexCount);
+		collect(received, receivedCount.get(), source, sink, vertexCount);
+	}
+
+	private void collect(int[] vertices, int count, int source, int sink, int vertexCount) {
+		int v;
+		for (int i = 0; i < count; i++) {
+			v = vertices[i];
+			if (stamp[v] != round) {
+				stamp[v] = round;
+				if (isActive(v, source, sink, vertexCount)) {
+					active[activeCount++] = v;
+				}
+			}
+		}
+	}
+
+	private void push(CsrGraph g, int vertex) {
+		int to, value;
+		for (int arc = g.first(vertex); arc != CsrGraph.NONE && excess[vertex] > 0; arc = g.next(arc)) {
+			to = g.to(arc);
+			if (label[vertex] == label[to] + 1 && g.residual(arc) > 0) {
+				value = Math.min(excess[vertex], g.residual(arc));
+				g.push(arc, value);
+				excess[vertex] -= value;
+				if (added.getAndAdd(to, value) == 0) {
+					received[receivedCount.getAndIncrement()] = to;
+				}
+			}
+		}
+	}
+
+	private void relabel(CsrGraph g, int vertex) {
+		int minimum = g.vertices();
+		if (excess[vertex] <= 0) {
+			return;
+		}
+		for (int arc = g.first(vertex); arc != CsrGraph.NONE; arc = g.next(arc)) {
+			if (g.residual(arc) > 0) {
+				minimum = Math.min(minimum, label[g.to(arc)] + 1);
+			}
+		}
+		label[vertex] = Math.max(label[vertex], Math.min(minimum, g.vertices()));
+	}
+
+	/*
+	 * Turn the maximum preflow into a maximum flow by cancelling the incoming flow of the vertices with an excess
+	 */
+	private void returnExcess(CsrGraph g, int source, int sink) {
+		balancer.reset(g.vertices());
+		for (int v = 0; v < g.vertices(); v++) {
+			if (v != source && v != sink && excess[v] > 0) {
+				balancer.add(v, excess[v]);
+			}
+		}
+		balancer.balance(g, source, sink);
+	}
+
+	private void parallel(int count, IntConsumer action) {
+		if (count <= SEQUENTIAL_THRESHOLD) {
+			for (int i = 0; i < count; i++) {
+				action.accept(i);
+			}
+		} else {
+			pool.invoke(new Range(0, count, action));
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static class Range extends RecursiveAction {
+
+		private final int begin;
+		private final int end;
+		private final IntConsumer action;
+
+		Range(int begin, int end, IntConsumer action) {
+			this.begin = begin;
+			this.end = end;
+			this.action = action;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - begin <= SEQUENTIAL_THRESHOLD) {
+				for (int i = begin; i < end; i++) {
+					action.accept(i);
+				}
+			} else {
+				int middle = (begin + end) >>> 1;
+				invokeAll(new Range(begin, middle, action), new Range(middle, end, action));
+			}
+		}
+
+	}
+
+}
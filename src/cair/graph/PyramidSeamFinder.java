@@ -0,0 +1,140 @@
+package cair.graph;
+
+import java.util.List;
+
+import cair.metrics.Metrics;
+
+/**
+ * Find the column to remove from a pyramid of the gradient, from the coarsest level to the full resolution<br>
+ * Each level halves the width and the height of the previous one, each value being the mean of four values of the previous level.
+ * The column is cut in the whole graph of the coarsest level only, then on each finer level
+ * it is cut again in a band of pixels around the column of the coarser level,
+ * the pixels on both sides of the band being merged with the source and the sink.
+ * The graph of the full resolution has <b>band*height</b> vertices instead of <b>width*height</b>,
+ * but the column may differ from the best one when the best one leaves the band.
+ * @see SeamCarving#toBandGraph
+ **/
+public class PyramidSeamFinder extends GradientSeamFinder {
+
+	/**
+	 * Default number of pixels on each side of the column of the coarser level in the bands
+	 **/
+	public static int MARGIN = 4;
+
+	private final MaxFlow coarse;
+	private final MaxFlow fine;
+	private final int levels;
+	private final int margin;
+	private final PathSearch search = new PathSearch(0);
+	private CsrGraph graph;
+
+	/**
+	 * Construct the seam finder
+	 * @param coarse Maximum flow algorithm cutting the graph of the coarsest level
+	 * @param fine Maximum flow algorithm cutting the graphs of the bands,
+	 * the bands are cut with {@link SeamCarving#fordFulkerson(Graph, PathSearch)} if it is not a {@link CsrMaxFlow}
+	 * @param levels Maximum number of levels under the full resolution
+	 * @param margin Number of pixels on each side of the column of the coarser level in the bands
+	 * @throws IllegalArgumentException levels &lt; 0
+	 * @throws IllegalArgumentException margin &lt; 1
+	 **/
+	public PyramidSeamFinder(MaxFlow coarse, MaxFlow fine, int levels, int margin) {
+		if (levels < 0) {
+			throw new IllegalArgumentException("levels = " + levels + " must be >= 0");
+		}
+		if (margin < 1) {
+			throw new IllegalArgumentException("margin = " + margin + " must be >= 1");
+		}
+		this.coarse = coarse;
+		this.fine = fine;
+		this.levels = levels;
+		this.margin = margin;
+	}
+
+	/**
+	 * Construct the seam finder with the default margin
+	 * @param solver Maximum flow algorithm of every level
+	 * @param levels Maximum number of levels under the full resolution
+	 * @throws IllegalArgumentException levels &lt; 0
+	 * @see PyramidSeamFinder#MARGIN
+	 **/
+	public PyramidSeamFinder(Solver solver, int levels) {
+		this(solver.newInstance(), solver.newInstance(), levels, MARGIN);
+	}
+
+	@Override
+	protected int[] find(int[][] gradient, int width, int height) {
+		int[][][] pyramid = new int[levels + 1][][];
+		int[] widths = new int[levels + 1], heights = new int[levels + 1];
+		int top = 0;
+		int[] positions;
+		pyramid[0] = gradient;
+		widths[0] = width;
+		heights[0] = height;
+		while (top < levels && widths[top]/2 >= 2*margin + 1 && heights[top] >= 2) {
+			widths[top + 1] = (widths[top] + 1)/2;
+			heights[top + 1] = (heights[top] + 1)/2;
+			pyramid[top + 1] = downsample(pyramid[top], widths[top], heights[top]);
+			top++;
+		}
+		positions = SeamCarving.verticesToPixelsPosition(coarse.minCut(pyramid[top], widths[top], heights[top]), heights[top]);
+		for (int level = top - 1; level >= 0; level--) {
+			positions = refine(pyramid[level], widths[level], heights[level], positions);
+		}
+		return positions;
+	}
+
+	/*
+	 * Return the next level of the pyramid, each value being the mean of up to four values
+	 */
+	private static int[][] downsample(int[][] gradient, int width, int height) {
+		int[][] result = new int[(height + 1)/2][(width + 1)/2];
+		int sum, count;
+		for (int i = 0; i < result.length; i++) {
+			for (int j = 0; j < result[i].length; j++) {
+				sum = 0;
+				count = 0;
+				for (int y = 2*i; y < Math.min(height, 2*i + 2); y++) {
+					for (int x = 2*j; x < Math.min(width, 2*j + 2); x++) {
+						sum += gradient[y][x];
+						count++;
+					}
+				}
+				result[i][j] = sum/count;
+			}
+		}
+		return result;
+	}
+
+	/*
+	 * Cut the column of a level in a band around the column of the coarser level
+	 */
+	private int[] refine(int[][] gradient, int width, int height, int[] coarser) {
+		int band = Math.min(2*margin + 1, width), vertexCount = band*height + 2, edgeCount = SeamCarving.bandEdges(height, band);
+		int[] offsets = new int[height], positions;
+		List<Integer> cut;
+		for (int i = 0; i < height; i++) {
+			offsets[i] = Math.max(0, Math.min(width - band, 2*coarser[Math.min(i/2, coarser.length - 1)] - margin));
+		}
+		if (fine instanceof CsrMaxFlow) {
+			if (graph == null || !graph.fits(vertexCount, edgeCount)) {
+				graph = new CsrGraph(vertexCount, edgeCount);
+			} else {
+				graph.clear(vertexCount);
+			}
+			SeamCarving.toBandGraph(gradient, width, height, offsets, band, graph);
+			long start = Metrics.start();
+			Metrics.count(Metrics.Counter.FLOW, ((CsrMaxFlow) fine).maxFlow(graph, 0, vertexCount - 1));
+			Metrics.stop(Metrics.Phase.FLOW, start);
+			cut = graph.minCut(0);
+		} else {
+			cut = SeamCarving.fordFulkerson(SeamCarving.toBandGraph(gradient, width, height, offsets, band, new Graph(vertexCount)), search);
+		}
+		positions = SeamCarving.verticesToPixelsPosition(cut, height);
+		for (int i = 0; i < height; i++) {
+			positions[i] += offsets[i];
+		}
+		return positions;
+	}
+
+}
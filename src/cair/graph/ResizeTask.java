@@ -0,0 +1,259 @@
+package cair.graph;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+import cair.image.Image;
+
+/**
+ * Resizing of an image which can be run by an executor, followed, cancelled and limited in time<br>
+ * The task is cancelled cooperatively : the thread running it checks the cancellation and the deadline
+ * before each removal and at each augmentation of the maximum flow algorithms,
+ * so a cancelled task stops within one augmentation instead of finishing its seam.
+ * The checks are only made in the thread running the task, not in the threads of a parallel algorithm.<br>
+ * A task whose deadline has passed is cancelled, {@link ResizeTask#isExpired} telling it apart from a task cancelled by the caller.
+ * The input image of a cancelled task may have been partially reduced.
+ * @see SeamCarving#contentAwareResizing(Image, int, int, SeamFinder, SeamOrder, IntConsumer)
+ **/
+public class ResizeTask implements RunnableFuture<Image> {
+
+	/**
+	 * Step of the resizing reported to the listener
+	 **/
+	public enum Phase {
+
+		/**
+		 * The graph of the next seam is being built
+		 * @see SeamCarving#toGraph(int[][], int, int, FlowGraph)
+		 **/
+		GRAPH,
+
+		/**
+		 * The maximum flow of the graph of the next seam is being computed
+		 * @see MaxFlow#minCut
+		 **/
+		FLOW,
+
+		/**
+		 * A seam has been removed
+		 * @see Axis#remove
+		 **/
+		REMOVAL
+
+	}
+
+	/**
+	 * Notification function of the progress of a task
+	 **/
+	@FunctionalInterface
+	public interface Listener {
+
+		/**
+		 * Called in the thread running the task when it enters a phase
+		 * @param phase Phase of the task
+		 * @param done Number of seams removed
+		 * @param total Number of seams to remove
+		 **/
+		void progress(Phase phase, int done, int total);
+
+	}
+
+	private static final ThreadLocal<ResizeTask> CURRENT = new ThreadLocal<>();
+
+	private final FutureTask<Image> future;
+	private final Listener listener;
+	private final int total;
+	private volatile int done;
+	private volatile Phase phase;
+	private volatile long deadline;
+	private volatile boolean deadlineSet;
+	private volatile boolean expired;
+
+	/**
+	 * Construct the task removing columns and lines of an image
+	 * @param image Input image
+	 * @param numberColumn Number of columns to remove
+	 * @param numberLine Number of lines to remove
+	 * @param finder Algorithm used to find each column and line, it must not be used by another task at the same time
+	 * @param order Strategy choosing between the removal of a column and the removal of a line
+	 * @param listener Notification function called with the progress, <b>null</b> for none
+	 * @throws IllegalArgumentException numberColumn &lt; 0
+	 * @throws IllegalArgumentException numberLine &lt; 0
+	 * @see SeamCarving#contentAwareResizing(Image, int, int, SeamFinder, SeamOrder, IntConsumer)
+	 **/
+	public ResizeTask(Image image, int numberColumn, int numberLine, SeamFinder finder, SeamOrder order, Listener listener) {
+		if (numberColumn < 0) {
+			throw new IllegalArgumentException("numberColumn = " + numberColumn + " must be >= 0");
+		}
+		if (numberLine < 0) {
+			throw new IllegalArgumentException("numberLine = " + numberLine + " must be >= 0");
+		}
+		this.future = new FutureTask<>(() -> resize(observer -> SeamCarving.contentAwareResizing(image, numberColumn, numberLine, finder, order, observer)));
+		this.listener = listener;
+		this.total = numberColumn + numberLine;
+	}
+
+	/**
+	 * Construct the task removing columns or lines of an image, finding several seams with each search
+	 * @param image Input image
+	 * @param number Number of columns or lines to remove
+	 * @param axis Dimension to reduce
+	 * @param seams Maximum number of seams found by each search, <b>1</b> for the best quality
+	 * @param finder Algorithm used to find the columns or lines, it must not be used by another task at the same time
+	 * @param listener Notification function called with the progress, <b>null</b> for none
+	 * @throws IllegalArgumentException number &lt; 0
+	 * @throws IllegalArgumentException seams &le; 0
+	 * @see SeamCarving#contentAwareResizing(Image, int, Axis, int, SeamFinder, IntConsumer)
+	 **/
+	public ResizeTask(Image image, int number, Axis axis, int seams, SeamFinder finder, Listener listener) {
+		if (number < 0) {
+			throw new IllegalArgumentException("number = " + number + " must be >= 0");
+		}
+		if (seams <= 0) {
+			throw new IllegalArgumentException("seams = " + seams + " must be > 0");
+		}
+		this.future = new FutureTask<>(() -> resize(observer -> SeamCarving.contentAwareResizing(image, number, axis, seams, finder, observer)));
+		this.listener = listener;
+		this.total = number;
+	}
+
+	/**
+	 * Limit the time of the task : once the timeout has elapsed, the task is cancelled at its next check,
+	 * even if it has not started yet
+	 * @param timeout Maximum time from now
+	 * @param unit Unit of the timeout
+	 * @see ResizeTask#isExpired
+	 **/
+	public void setTimeout(long timeout, TimeUnit unit) {
+		deadline = System.nanoTime() + unit.toNanos(timeout);
+		deadlineSet = true;
+	}
+
+	/**
+	 * Check if the task has been cancelled because its deadline has passed
+	 * @return <b>true</b> if the deadline has passed before the end of the task, <b>false</b> otherwise
+	 * @see ResizeTask#setTimeout
+	 **/
+	public boolean isExpired() {
+		return expired;
+	}
+
+	/**
+	 * Return the number of seams removed
+	 * @return the number of seams removed
+	 * @see ResizeTask#getTotal
+	 **/
+	public int getDone() {
+		return done;
+	}
+
+	/**
+	 * Return the number of seams to remove
+	 * @return the number of seams to remove
+	 **/
+	public int getTotal() {
+		return total;
+	}
+
+	/**
+	 * Return the current phase of the task
+	 * @return the last phase entered by the task, <b>null</b> if it has not started
+	 **/
+	public Phase getPhase() {
+		return phase;
+	}
+
+	@Override
+	public void run() {
+		future.run();
+	}
+
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		return future.cancel(mayInterruptIfRunning);
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return future.isCancelled();
+	}
+
+	@Override
+	public boolean isDone() {
+		return future.isDone();
+	}
+
+	@Override
+	public Image get() throws InterruptedException, ExecutionException {
+		return future.get();
+	}
+
+	@Override
+	public Image get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		return future.get(timeout, unit);
+	}
+
+	/*
+	 * Run a resizing in the current thread, its observer counting the removed seams
+	 */
+	private Image resize(Function<IntConsumer, Image> resizing) {
+		CURRENT.set(this);
+		try {
+			check();
+			return resizing.apply(i -> {
+				done = i + 1;
+				enter(Phase.REMOVAL);
+			});
+		} finally {
+			CURRENT.remove();
+		}
+	}
+
+	private void enter(Phase phase) {
+		this.phase = phase;
+		if (listener != null) {
+			listener.progress(phase, done, total);
+		}
+		check();
+	}
+
+	private void check() {
+		if (deadlineSet && !expired && System.nanoTime() - deadline > 0) {
+			expired = true;
+			cancel(false);
+		}
+		if (isCancelled()) {
+			throw new CancellationException(expired ? "deadline exceeded" : "cancelled");
+		}
+	}
+
+	/**
+	 * Check the cancellation of the task run by the current thread, if any
+	 * @throws CancellationException the task has been cancelled or its deadline has passed
+	 **/
+	static void checkpoint() {
+		ResizeTask task = CURRENT.get();
+		if (task != null) {
+			task.check();
+		}
+	}
+
+	/**
+	 * Notify the task run by the current thread, if any, that it enters a phase
+	 * @param phase Phase entered
+	 * @throws CancellationException the task has been cancelled or its deadline has passed
+	 **/
+	static void phase(Phase phase) {
+		ResizeTask task = CURRENT.get();
+		if (task != null) {
+			task.enter(phase);
+		}
+	}
+
+}
@@ -0,0 +1,174 @@
+package cair.graph;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import cair.image.Image;
+
+/**
+ * Cache of the seam indexes of image files, serving the repeated resizings of the same image without searching its seams again<br>
+ * The indexes are kept in memory, the least recently used one being dropped when the capacity is exceeded,
+ * and optionally stored in a sidecar file next to the image, which is read back when the index is not in memory.
+ * An index is identified by the image file, its size and its modification time, the axis,
+ * and a description of the seam finder, so a modified image or another finder computes the seams again.<br>
+ * When an index is missing or too short, the seams are computed up to a multiple of the requested number,
+ * so that the next resizings to a slightly smaller size are served too, and an index grows in chunks proportional to the requests.
+ * Two threads resizing the same image at the same time may both compute its seams, the longest index being kept.
+ * @see SeamIndex
+ **/
+public class SeamCache {
+
+	/**
+	 * Default number of indexes kept in memory
+	 **/
+	public static final int CAPACITY = 16;
+
+	/**
+	 * Default ratio between the number of seams computed for an index and the number of seams requested
+	 **/
+	public static final double GROWTH = 1.25;
+
+	/**
+	 * Suffix of the sidecar files, appended to the name of the image file and of the axis
+	 **/
+	public static final String SIDECAR = ".seams";
+
+	private final Supplier<SeamFinder> finders;
+	private final String description;
+	private final double growth;
+	private final boolean sidecar;
+	private final Map<String, SeamIndex> indexes;
+
+	/**
+	 * Construct the cache
+	 * @param finders Creation of the seam finders, a finder being created for each computation
+	 * @param description Description of the seam finders, such as their algorithm and their energy function
+	 * @param capacity Maximum number of indexes kept in memory
+	 * @param growth Ratio between the number of seams computed for a missing or too short index and the number of seams requested,
+	 * <b>1</b> to compute only the requested seams
+	 * @param sidecar <b>true</b> to read and write the indexes in sidecar files
+	 * @throws IllegalArgumentException capacity &le; 0
+	 * @throws IllegalArgumentException growth &lt; 1
+	 **/
+	public SeamCache(Supplier<SeamFinder> finders, String description, int capacity, double growth, boolean sidecar) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity = " + capacity + " must be > 0");
+		}
+		if (Double.isNaN(growth) || growth < 1) {
+			throw new IllegalArgumentException("growth = " + growth + " must be >= 1");
+		}
+		this.finders = finders;
+		this.description = description;
+		this.growth = growth;
+		this.sidecar = sidecar;
+		this.indexes = new LinkedHashMap<String, SeamIndex>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, SeamIndex> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Construct the cache with the default capacity and growth, storing the indexes in sidecar files
+	 * @param finders Creation of the seam finders, a finder being created for each computation
+	 * @param description Description of the seam finders, such as their algorithm and their energy function
+	 * @see SeamCache#CAPACITY
+	 * @see SeamCache#GROWTH
+	 **/
+	public SeamCache(Supplier<SeamFinder> finders, String description) {
+		this(finders, description, CAPACITY, GROWTH, true);
+	}
+
+	/**
+	 * Remove columns or lines from the image of a file
+	 * @param path Image file
+	 * @param image Image read from the file, which is not modified
+	 * @param number Number of columns or lines to remove
+	 * @param axis Dimension to reduce
+	 * @return the reduced image
+	 * @throws IOException Input/Output error on the image file or on the sidecar file
+	 * @throws IllegalArgumentException number &lt; 0 or number &gt; axis.size(image) - 2
+	 * @see SeamCache#index
+	 **/
+	public Image resize(Path path, Image image, int number, Axis axis) throws IOException {
+		return index(path, image, number, axis).resize(image, number);
+	}
+
+	/**
+	 * Return the index of the image of a file, computed or extended if it has less than the requested number of seams
+	 * @param path Image file
+	 * @param image Image read from the file, which is not modified
+	 * @param number Minimum number of seams of the index
+	 * @param axis Dimension reduced by the seams
+	 * @return the index, with at least <b>number</b> seams
+	 * @throws IOException Input/Output error on the image file or on the sidecar file
+	 * @throws IllegalArgumentException number &lt; 0 or number &gt; axis.size(image) - 2
+	 **/
+	public SeamIndex index(Path path, Image image, int number, Axis axis) throws IOException {
+		if (number < 0 || number > axis.size(image) - 2) {
+			throw new IllegalArgumentException("number = " + number + " must be >= 0 and <= " + (axis.size(image) - 2));
+		}
+		String tag = description + " " + Files.size(path) + " " + Files.getLastModifiedTime(path).toMillis();
+		String key = path.toAbsolutePath().normalize() + " " + axis + " " + tag;
+		Path file = sidecar(path, axis);
+		SeamIndex index;
+		synchronized (indexes) {
+			index = indexes.get(key);
+		}
+		if (index == null && sidecar && Files.isRegularFile(file)) {
+			index = SeamIndex.read(file, tag);
+			if (index != null && (index.getAxis() != axis || index.getWidth() != image.getWidth() || index.getHeight() != image.getHeight())) {
+				index = null;
+			}
+		}
+		if (index == null || index.getSeams() < number) {
+			int seams = (int) Math.min(axis.size(image) - 2, Math.max(number, Math.ceil(growth*number)));
+			index = (index == null) ? SeamIndex.compute(image, axis, seams, finders.get()) : index.extend(image, seams, finders.get());
+			if (sidecar) {
+				Path temporary = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), null);
+				try {
+					index.write(temporary, tag);
+					Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				} finally {
+					Files.deleteIfExists(temporary);
+				}
+			}
+		}
+		synchronized (indexes) {
+			SeamIndex cached = indexes.get(key);
+			if (cached == null || cached.getSeams() < index.getSeams()) {
+				indexes.put(key, index);
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Return the sidecar file of an image file
+	 * @param path Image file
+	 * @param axis Dimension reduced by the seams
+	 * @return the file named after the image file, the axis in lower case and {@link SeamCache#SIDECAR}, in the same directory
+	 **/
+	public static Path sidecar(Path path, Axis axis) {
+		return path.resolveSibling(path.getFileName() + "." + axis.name().toLowerCase(Locale.ROOT) + SIDECAR);
+	}
+
+	/**
+	 * Remove all the indexes kept in memory, the sidecar files being kept
+	 **/
+	public void clear() {
+		synchronized (indexes) {
+			indexes.clear();
+		}
+	}
+
+}
@@ -1,13 +1,11 @@
 package cair.graph;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
 import java.util.function.IntConsumer;
 
 import cair.image.Image;
+import cair.metrics.Metrics;
 
 /**
  * All the method to perform the content aware image resizing
@@ -24,74 +22,210 @@ public abstract class SeamCarving {
 	 **/
 	public static int BFS_PARENT_NONE = -1;
 	
+	private static final ThreadLocal<PathSearch> SEARCH = ThreadLocal.withInitial(() -> new PathSearch(0));
+	
 	/**
 	 * Generate a graph from an interest array
 	 * @param image 
 	 * @return the associated graph
 	 * @see Image#horizontalGradient
 	 * @see SeamCarving#fordFulkerson
+	 * @see SeamCarving#toGraph(Image, FlowGraph)
 	 **/
 	public static Graph toGraph(Image image) {
-		int width = image.getWidth(), height = image.getHeight();
-		int[][] gradient = image.horizontalGradient();
+		return toGraph(image, new Graph(image.getWidth()*image.getHeight() + 2));
+	}
+	
+	/**
+	 * Fill a flow graph from an interest array<br>
+	 * The graph must have <b>width*height + 2</b> vertices and no edge,
+	 * the source is the vertex 0 and the sink is the last vertex.
+	 * @param image Input image
+	 * @param graph Empty graph to fill
+	 * @param <G> Type of the flow graph
+	 * @return the filled graph
+	 * @throws IllegalArgumentException graph.vertices() &ne; width*height + 2
+	 * @see Image#horizontalGradient
+	 * @see SeamCarving#edges
+	 **/
+	public static <G extends FlowGraph> G toGraph(Image image, G graph) {
+		return toGraph(image, Energy.GRADIENT, graph);
+	}
+	
+	/**
+	 * Fill a flow graph from the energy of an image<br>
+	 * The graph must have <b>width*height + 2</b> vertices and no edge,
+	 * the source is the vertex 0 and the sink is the last vertex.
+	 * @param image Input image
+	 * @param energy Energy function weighting the pixels
+	 * @param graph Empty graph to fill
+	 * @param <G> Type of the flow graph
+	 * @return the filled graph
+	 * @throws IllegalArgumentException graph.vertices() &ne; width*height + 2
+	 * @see EnergyFunction#energy
+	 * @see SeamCarving#edges
+	 **/
+	public static <G extends FlowGraph> G toGraph(Image image, EnergyFunction energy, G graph) {
+		return toGraph(energy.energy(image, Axis.WIDTH), image.getWidth(), image.getHeight(), graph);
+	}
+	
+	/**
+	 * Fill a flow graph from a gradient<br>
+	 * The graph must have <b>width*height + 2</b> vertices and no edge,
+	 * the source is the vertex 0 and the sink is the last vertex.
+	 * @param gradient Horizontal gradient of the image, only the first <b>width</b> values of each line are read
+	 * @param width Width of the image
+	 * @param height Height of the image
+	 * @param graph Empty graph to fill
+	 * @param <G> Type of the flow graph
+	 * @return the filled graph
+	 * @throws IllegalArgumentException graph.vertices() &ne; width*height + 2
+	 * @see Image#horizontalGradient
+	 * @see Image#updateHorizontalGradient
+	 **/
+	public static <G extends FlowGraph> G toGraph(int[][] gradient, int width, int height, G graph) {
 		int u, v;
-		Graph g = new Graph(width*height + 2);
+		if (graph.vertices() != width*height + 2) {
+			throw new IllegalArgumentException("graph.vertices() = " + graph.vertices() + " must be = " + (width*height + 2));
+		}
+		ResizeTask.phase(ResizeTask.Phase.GRAPH);
+		long start = Metrics.start();
 		for (int i = 0; i < height; i++) {
-			g.addEdge(new Edge(0, i + 1, INFINITY, 0));
-			g.addEdge(new Edge(i + (width - 1)*height + 1, width*height + 1, gradient[i][width-1], 0));
+			graph.addEdge(0, i + 1, INFINITY);
+			graph.addEdge(i + (width - 1)*height + 1, width*height + 1, gradient[i][width-1]);
 		}
 		for (int i = 0; i < height; i++) {
 			for (int j = 0; j < width - 1; j++) {
 				u = i + j*height + 1;
 				v = i + (j+1)*height + 1;
-				g.addEdge(new Edge(u, v, gradient[i][j], 0));
-				g.addEdge(new Edge(v, u, INFINITY, 0));
+				graph.addEdges(u, v, gradient[i][j], INFINITY);
 				if (i > 0) {
-					g.addEdge(new Edge(v - 1, u, INFINITY, 0));
+					graph.addEdge(v - 1, u, INFINITY);
 				}
 				if (i < height - 1) {
-					g.addEdge(new Edge(v + 1, u, INFINITY, 0));
+					graph.addEdge(v + 1, u, INFINITY);
+				}
+			}
+		}
+		Metrics.stop(Metrics.Phase.GRAPH, start);
+		return graph;
+	}
+	
+	/**
+	 * Return the number of edges of the graph generated from an image
+	 * @param width Width of the image
+	 * @param height Height of the image
+	 * @return the number of edges of the generated graph
+	 * @see SeamCarving#toGraph(Image, FlowGraph)
+	 * @see CsrGraph#CsrGraph
+	 **/
+	public static int edges(int width, int height) {
+		return 2*height + (width - 1)*(4*height - 2);
+	}
+	
+	/**
+	 * Fill a flow graph from the pixels of a band of a gradient<br>
+	 * The band contains <b>band</b> pixels of each line, from the column <b>offsets[i]</b> on the line <b>i</b>.
+	 * The pixels on the left of the band are merged with the source and the pixels on the right of the band with the sink,
+	 * so the minimum cut of the graph is the best column lying in the band, as long as the band contains a column.<br>
+	 * The vertex of the <b>k</b>-th pixel of the band on the line <b>i</b> is <b>i + k*height + 1</b>,
+	 * the graph must have <b>band*height + 2</b> vertices and no edge.
+	 * @param gradient Horizontal gradient of the image, only the first <b>width</b> values of each line are read
+	 * @param width Width of the image
+	 * @param height Height of the image
+	 * @param offsets First column of the band on each line, between <b>0</b> and <b>width - band</b>
+	 * @param band Number of pixels of the band on each line
+	 * @param graph Empty graph to fill
+	 * @param <G> Type of the flow graph
+	 * @return the filled graph
+	 * @throws IllegalArgumentException band &le; 0 or band &gt; width
+	 * @throws IllegalArgumentException graph.vertices() &ne; band*height + 2
+	 * @see SeamCarving#toGraph(int[][], int, int, FlowGraph)
+	 * @see SeamCarving#bandEdges
+	 **/
+	public static <G extends FlowGraph> G toBandGraph(int[][] gradient, int width, int height, int[] offsets, int band, G graph) {
+		int u, x, y, sink = band*height + 1;
+		if (band <= 0 || band > width) {
+			throw new IllegalArgumentException("band = " + band + " must be > 0 and <= width = " + width);
+		}
+		if (graph.vertices() != band*height + 2) {
+			throw new IllegalArgumentException("graph.vertices() = " + graph.vertices() + " must be = " + (band*height + 2));
+		}
+		ResizeTask.phase(ResizeTask.Phase.GRAPH);
+		long start = Metrics.start();
+		for (int i = 0; i < height; i++) {
+			graph.addEdge(0, i + 1, INFINITY);
+			for (int k = 0; k < band; k++) {
+				u = i + k*height + 1;
+				x = offsets[i] + k;
+				if (k < band - 1) {
+					graph.addEdges(u, u + height, gradient[i][x], INFINITY);
+				} else {
+					graph.addEdge(u, sink, gradient[i][x]);
+				}
+				for (int r = i - 1; r <= i + 1; r += 2) {
+					if (r < 0 || r >= height) {
+						continue;
+					}
+					y = x + 1;
+					if (y < offsets[r]) {
+						graph.addEdge(0, u, INFINITY);
+					} else if (y < offsets[r] + band) {
+						graph.addEdge(r + (y - offsets[r])*height + 1, u, INFINITY);
+					}
+					y = x - 1;
+					if (y >= offsets[r] + band) {
+						graph.addEdge(u, sink, INFINITY);
+					}
 				}
 			}
 		}
-		return g;
+		Metrics.stop(Metrics.Phase.GRAPH, start);
+		return graph;
+	}
+	
+	/**
+	 * Return the maximum number of edges of the graph generated from a band of an image
+	 * @param height Height of the image
+	 * @param band Number of pixels of the band on each line
+	 * @return the maximum number of edges of the generated graph
+	 * @see SeamCarving#toBandGraph
+	 **/
+	public static int bandEdges(int height, int band) {
+		return height + 6*band*height;
 	}
 	
 	/**
-	 * Perform a breadth-first search on a flow graph from a root to a target<br>
+	 * Perform a breadth-first search on the residual graph of a flow graph from a root to a target<br>
+	 * The edges which are not saturated are followed forward and the edges which carry flow are followed backward.<br>
 	 * The parents array is filled as things progress such that
 	 * the <b>i</b>-th value contains the parent index of the <b>i</b> vertex of the path.<br>
-	 * If <b>i</b> did not have any parent then the <b>i</b>-th value will contain <b>{@link #BFS_PARENT_NONE}</b>.
+	 * If <b>i</b> did not have any parent then the <b>i</b>-th value will contain <b>{@link #BFS_PARENT_NONE}</b>.<br>
+	 * The search is made by a {@link PathSearch} kept for each thread, so it does not allocate its queue.
 	 * @param gitr The graphe to browse
 	 * @param root The origin of the path
 	 * @param target The destination of the path
 	 * @param parents Parents array
 	 * @return <b>true</b> if the graph is saturated, <b>false</b> otherwise
 	 * @see SeamCarving#fordFulkerson
+	 * @see PathSearch#bfs
 	 **/
 	public static boolean bfs(Graph gitr, int root, int target, int[] parents) {
-		Queue<Integer> vertices = new LinkedList<>();
-		int vert;
-		vertices.add(root);
-		while (!vertices.isEmpty()) {
-			vert = vertices.remove();
-			if (vert == target) {
-				return false;
-			}
-			for (Edge edge : gitr.from(vert)) {
-				if (parents[edge.getTo()] == BFS_PARENT_NONE && edge.isFree()) {
-					parents[edge.getTo()] = vert;
-					vertices.add(edge.getTo());
-				}
+		PathSearch search = SEARCH.get();
+		boolean saturated = search.bfs(gitr, root, target);
+		for (int vertex = 0; vertex < gitr.vertices(); vertex++) {
+			if (vertex != root && search.isVisited(vertex)) {
+				parents[vertex] = search.parent(vertex);
 			}
 		}
-		return true;
+		return saturated;
 	}
 	
 	/**
 	 * Perform the <b>Ford-Fulkerson</b> algorithm on the graph.<br>
+	 * The augmenting paths are searched in the residual graph, so the flow can be cancelled and the flow is maximum.
 	 * At the end of the method, the graph is staturated,
-	 * the cut <b>(S,T)</b> is determined and
+	 * the cut <b>(S,T)</b> is determined, <b>S</b> being the vertices reachable from the source in the residual graph, and
 	 * we can send the list of vertices <b>u</b> &isin; <b>S</b> such that :<br>
 	 * <b>v</b> &isin; <b>T</b> and (<b>u</b>,<b>v</b>) &isin; <b>A</b>,
 	 * corresponding of the pixels we can get rid.
@@ -102,40 +236,67 @@ public abstract class SeamCarving {
 	 * @see SeamCarving#verticesToPixelsPosition
 	 **/
 	public static List<Integer> fordFulkerson(Graph gitr) {
+		return fordFulkerson(gitr, new PathSearch(gitr.vertices()));
+	}
+	
+	/**
+	 * Perform the <b>Ford-Fulkerson</b> algorithm on the graph, reusing the buffers of the breadth-first searches
+	 * @param gitr Graph to process
+	 * @param search Buffers of the searches, which may be reused for the next graph
+	 * @return the list of pixels to remove
+	 * @see SeamCarving#fordFulkerson(Graph)
+	 * @see PathSearch#bfs
+	 * @see Graph#augment
+	 **/
+	public static List<Integer> fordFulkerson(Graph gitr, PathSearch search) {
 		ArrayList<Integer> result = new ArrayList<>();
-		LinkedList<Edge> path;
 		Edge edge;
 		int root = 0, target = gitr.vertices() - 1;
-		int[] parents = new int[gitr.vertices()];
-		int minimum;
-		Arrays.fill(parents, BFS_PARENT_NONE);
-		while (!bfs(gitr, root, target, parents)) {
-			path = new LinkedList<>();
+		int minimum, degree;
+		long start = Metrics.start(), visits = search.visits(), augmentations = 0, flow = 0;
+		ResizeTask.phase(ResizeTask.Phase.FLOW);
+		while (!search.bfs(gitr, root, target)) {
+			ResizeTask.checkpoint();
+			augmentations++;
 			minimum = INFINITY;
-			for (int v = target; v != root; v = parents[v]) {
-				edge = gitr.getEdge(parents[v], v);
-				path.addFirst(edge);
-				minimum = Math.min(minimum, edge.getFreeFlow());
+			for (int v = target; v != root; v = search.parent(v)) {
+				edge = gitr.edge(search.incoming(v));
+				minimum = Math.min(minimum, search.isBackward(v) ? edge.getUsed() : edge.getFreeFlow());
 			}
-			for (Edge e : path) {
-				e.fill(minimum);
+			for (int v = target; v != root; v = search.parent(v)) {
+				if (search.isBackward(v)) {
+					gitr.cancel(search.incoming(v), minimum);
+				} else {
+					gitr.augment(search.incoming(v), minimum);
+				}
 			}
-			Arrays.fill(parents, BFS_PARENT_NONE);
+			flow += minimum;
 		}
-		for (Edge e : gitr.edges()) {
-			if (parents[e.getFrom()] != BFS_PARENT_NONE && parents[e.getTo()] == BFS_PARENT_NONE) {
-				result.add(e.getFrom());
+		Metrics.count(Metrics.Counter.AUGMENTATIONS, augmentations);
+		Metrics.count(Metrics.Counter.VERTICES_VISITED, search.visits() - visits);
+		Metrics.count(Metrics.Counter.FLOW, flow);
+		Metrics.stop(Metrics.Phase.FLOW, start);
+		for (int u = 0; u < gitr.vertices(); u++) {
+			if (!search.isVisited(u)) {
+				continue;
+			}
+			degree = gitr.degree(u);
+			for (int k = 0; k < degree; k++) {
+				edge = gitr.adjacent(u, k);
+				if (edge.getFrom() == u && !search.isVisited(edge.getTo())) {
+					result.add(u);
+				}
 			}
 		}
 		return result;
 	} 
 	
-	private static int getVertexX(Image image, int vertex) {
-		return (vertex-1)/image.getHeight();
+	private static int getVertexX(int height, int vertex) {
+		return (vertex-1)/height;
 	}
-
-	private static int getVertexY(Image image, int vertex) {
-		return (vertex-1)%image.getHeight();
+	
+	private static int getVertexY(int height, int vertex) {
+		return (vertex-1)%height;
 	}
 	
 	/**
@@ -150,35 +311,144 @@ public abstract class SeamCarving {
 	 * @see Image#removePixelsWidth
 	 */
 	public static int[] verticesToPixelsPosition(Image image, List<Integer> vertices) {
-		int[] positions = new int[image.getHeight()];
+		return verticesToPixelsPosition(vertices, image.getHeight());
+	}
+	
+	/**
+	 * Convert the vertices index to positions in the lines of the gradient used to generate the graph
+	 * @param vertices Vertices to convert
+	 * @param height Number of lines of the gradient
+	 * @return the position of the vertices in each line
+	 * @see SeamCarving#verticesToPixelsPosition(Image, List)
+	 * @see SeamCarving#toGraph(int[][], int, int, FlowGraph)
+	 */
+	public static int[] verticesToPixelsPosition(List<Integer> vertices, int height) {
+		int[] positions = new int[height];
 		for (int v : vertices) {
-			positions[getVertexY(image, v)] = getVertexX(image, v);
+			positions[getVertexY(height, v)] = getVertexX(height, v);
 		}
 		return positions;
 	}
 	
 	/**
-	 * Remove column in the image by performing the seam carving algorithm
+	 * Remove column in the image by performing the seam carving algorithm,
+	 * with the push-relabel algorithm which is the fastest solver on these graphs
 	 * @param image Input image
 	 * @param numberColumn Number of column to remove
 	 * @param observer Notification function called each time a column is removed
 	 * @return the reduced image
 	 * @see SeamCarving#toGraph
-	 * @see SeamCarving#fordFulkerson
+	 * @see Solver#PUSH_RELABEL
 	 * @see SeamCarving#verticesToPixelsPosition
 	 * @see Image#removePixelsWidth
 	 */
 	public static Image contentAwareResizing(Image image, int numberColumn, IntConsumer observer) {
+		return contentAwareResizing(image, numberColumn, Solver.PUSH_RELABEL, observer);
+	}
+	
+	/**
+	 * Remove column in the image by performing the seam carving algorithm with a chosen maximum flow algorithm
+	 * @param image Input image
+	 * @param numberColumn Number of column to remove
+	 * @param solver Maximum flow algorithm used to find each column
+	 * @param observer Notification function called each time a column is removed
+	 * @return the reduced image
+	 * @see MaxFlow#minCut
+	 * @see GraphCutSeamFinder
+	 */
+	public static Image contentAwareResizing(Image image, int numberColumn, Solver solver, IntConsumer observer) {
+		return contentAwareResizing(image, numberColumn, new GraphCutSeamFinder(solver.newInstance()), observer);
+	}
+	
+	/**
+	 * Remove column in the image with a chosen seam finder
+	 * @param image Input image
+	 * @param numberColumn Number of column to remove
+	 * @param finder Algorithm used to find each column
+	 * @param observer Notification function called each time a column is removed
+	 * @return the reduced image
+	 * @see GraphCutSeamFinder
+	 * @see DynamicProgrammingSeamFinder
+	 * @see Image#removePixelsWidth
+	 * @see SeamFinder#seamRemoved
+	 */
+	public static Image contentAwareResizing(Image image, int numberColumn, SeamFinder finder, IntConsumer observer) {
+		return contentAwareResizing(image, numberColumn, Axis.WIDTH, finder, observer);
+	}
+	
+	/**
+	 * Remove columns or lines in the image with a chosen seam finder
+	 * @param image Input image
+	 * @param number Number of columns or lines to remove
+	 * @param axis Dimension to reduce
+	 * @param finder Algorithm used to find each column or line
+	 * @param observer Notification function called each time a column or a line is removed
+	 * @return the reduced image
+	 * @see Axis#remove
+	 * @see SeamFinder#seamRemoved(Image, Axis, int[])
+	 */
+	public static Image contentAwareResizing(Image image, int number, Axis axis, SeamFinder finder, IntConsumer observer) {
+		return contentAwareResizing(image, number, axis, 1, finder, observer);
+	}
+	
+	/**
+	 * Remove columns or lines in the image with a chosen seam finder, finding several seams with each search
+	 * @param image Input image
+	 * @param number Number of columns or lines to remove
+	 * @param axis Dimension to reduce
+	 * @param seams Maximum number of seams found by each search, <b>1</b> for the best quality
+	 * @param finder Algorithm used to find the columns or lines
+	 * @param observer Notification function called each time a column or a line is removed
+	 * @return the reduced image
+	 * @throws IllegalArgumentException seams &le; 0
+	 * @see SeamFinder#find(Image, Axis, int)
+	 * @see Axis#remove
+	 * @see SeamFinder#seamRemoved(Image, Axis, int[])
+	 */
+	public static Image contentAwareResizing(Image image, int number, Axis axis, int seams, SeamFinder finder, IntConsumer observer) {
+		if (seams <= 0) {
+			throw new IllegalArgumentException("seams = " + seams + " must be > 0");
+		}
 		Image resultImage = image;
-		Graph graph;
-		List<Integer> graphCut;
-		for (int i = 0; i < numberColumn; i++) {
-			graph = SeamCarving.toGraph(resultImage);
-			graphCut = SeamCarving.fordFulkerson(graph);
-			resultImage.removePixelsWidth(verticesToPixelsPosition(resultImage, graphCut));
-			observer.accept(i);
+		int[][] batch;
+		for (int i = 0; i < number; ) {
+			batch = (seams == 1) ? new int[][] {finder.find(resultImage, axis)} : finder.find(resultImage, axis, Math.min(seams, number - i));
+			for (int[] positions : batch) {
+				axis.remove(resultImage, positions);
+				finder.seamRemoved(resultImage, axis, positions);
+				observer.accept(i++);
+			}
 		}
 		return resultImage;
 	}
 	
+	/**
+	 * Remove columns and lines in the image, in the order chosen by a strategy
+	 * @param image Input image
+	 * @param numberColumn Number of columns to remove
+	 * @param numberLine Number of lines to remove
+	 * @param finder Algorithm used to find each column and line
+	 * @param order Strategy choosing between the removal of a column and the removal of a line
+	 * @param observer Notification function called with the progress, from <b>0</b> to <b>numberColumn + numberLine - 1</b>
+	 * @return the reduced image, which may be a copy of the input image
+	 * @throws IllegalArgumentException numberColumn &lt; 0
+	 * @throws IllegalArgumentException numberLine &lt; 0
+	 * @see SeamOrder
+	 */
+	public static Image contentAwareResizing(Image image, int numberColumn, int numberLine, SeamFinder finder, SeamOrder order, IntConsumer observer) {
+		if (numberColumn < 0) {
+			throw new IllegalArgumentException("numberColumn = " + numberColumn + " must be >= 0");
+		}
+		if (numberLine < 0) {
+			throw new IllegalArgumentException("numberLine = " + numberLine + " must be >= 0");
+		}
+		if (numberLine == 0) {
+			return contentAwareResizing(image, numberColumn, Axis.WIDTH, finder, observer);
+		}
+		if (numberColumn == 0) {
+			return contentAwareResizing(image, numberLine, Axis.HEIGHT, finder, observer);
+		}
+		return order.resize(image, numberColumn, numberLine, finder, observer);
+	}
+	
 }
@@ -0,0 +1,104 @@
+package cair.graph;
+
+import cair.image.Image;
+
+/**
+ * Algorithm finding the next column or line to remove from an image<br>
+ * An instance may keep buffers between two calls, so it must not be shared between threads.
+ * @see SeamCarving#contentAwareResizing(Image, int, SeamFinder, java.util.function.IntConsumer)
+ **/
+public interface SeamFinder {
+
+	/**
+	 * Find the pixels to remove from the image to reduce one of its dimensions<br>
+	 * On every line (or column for {@link Axis#HEIGHT}) exactly one pixel is removed,
+	 * the positions are returned as a 1D array of a size equal to <b>axis.seamLength(image)</b>,
+	 * where the i-th value contains the position of the pixel in the i-th line (or column)
+	 * @param image Input image
+	 * @param axis Dimension to reduce
+	 * @return the positions of the pixels to remove
+	 * @see Axis#remove
+	 **/
+	int[] find(Image image, Axis axis);
+
+	/**
+	 * Find several seams to remove one after the other from the image with a single search<br>
+	 * The positions of each seam are given in the image from which the previous seams have been removed,
+	 * so the seams can be passed in order to {@link Axis#remove}.
+	 * Finding several seams at once is faster but the seams are chosen on the energy of the image before the first removal.
+	 * @param image Input image
+	 * @param axis Dimension to reduce
+	 * @param count Maximum number of seams to find
+	 * @return between <b>1</b> and <b>count</b> seams, only one unless the finder supports several seams
+	 * @throws IllegalArgumentException count &le; 0
+	 * @see SeamFinder#find(Image, Axis)
+	 **/
+	default int[][] find(Image image, Axis axis, int count) {
+		if (count <= 0) {
+			throw new IllegalArgumentException("count = " + count + " must be > 0");
+		}
+		return new int[][] {find(image, axis)};
+	}
+
+	/**
+	 * Find the pixels to remove from the image<br>
+	 * On every line exactly one pixel is removed, the positions are returned as a 1D array of a size equal to the height the image,
+	 * where the i-th value contains the value on x of the position (a coordinate on the image is represented by i, arr[i])
+	 * @param image Input image
+	 * @return the positions of the pixels to remove
+	 * @see Image#removePixelsWidth
+	 **/
+	default int[] find(Image image) {
+		return find(image, Axis.WIDTH);
+	}
+
+	/**
+	 * Return the energy of a seam, the sum of the gradient of its pixels
+	 * @param image Input image, before the removal of the seam
+	 * @param axis Dimension reduced by the seam
+	 * @param positions Positions of the pixels of the seam
+	 * @return the energy of the seam
+	 * @see SeamFinder#find(Image, Axis)
+	 **/
+	default long energy(Image image, Axis axis, int[] positions) {
+		int[][] gradient = axis.gradient(image);
+		long energy = 0;
+		for (int i = 0; i < positions.length; i++) {
+			energy += gradient[i][positions[i]];
+		}
+		return energy;
+	}
+
+	/**
+	 * Notify the seam finder that a column or a line has been removed from the image,
+	 * so it can update its buffers instead of computing them again
+	 * @param image Image after the removal
+	 * @param axis Dimension which has been reduced
+	 * @param positions Positions of the removed pixels
+	 * @see SeamFinder#find(Image, Axis)
+	 * @see Axis#remove
+	 **/
+	default void seamRemoved(Image image, Axis axis, int[] positions) {
+	}
+
+	/**
+	 * Notify the seam finder that a column has been removed from the image,
+	 * so it can update its buffers instead of computing them again
+	 * @param image Image after the removal
+	 * @param positions Positions of the removed pixels
+	 * @see SeamFinder#find
+	 * @see Image#removePixelsWidth
+	 **/
+	default void seamRemoved(Image image, int[] positions) {
+		seamRemoved(image, Axis.WIDTH, positions);
+	}
+
+	/**
+	 * Forget the state kept from the previous searches which is not checked against the next image,
+	 * such as the flow of a warm started maximum flow algorithm
+	 * @see MaxFlow#reset
+	 **/
+	default void reset() {
+	}
+
+}
@@ -0,0 +1,257 @@
+package cair.graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import cair.image.Image;
+
+/**
+ * Ordered list of the seams of an image, stored as a seam index map<br>
+ * The map gives for each pixel of the original image the rank of the seam which removes it,
+ * the pixels which are not removed by any of the computed seams having the rank {@link SeamIndex#KEPT}.
+ * Once the seams are computed, the image reduced by any number of them is rebuilt in a single pass,
+ * without searching a seam again.<br>
+ * An index is immutable, so it can be shared between threads : {@link SeamIndex#extend} returns a new index.
+ * @see Image#removeSeams
+ * @see SeamCache
+ **/
+public final class SeamIndex {
+
+	/**
+	 * Rank of the pixels which are not removed by any of the computed seams
+	 **/
+	public static final int KEPT = Integer.MAX_VALUE;
+
+	private static final int MAGIC = 0x43414952;
+	private static final int VERSION = 1;
+
+	private final Axis axis;
+	private final int width;
+	private final int height;
+	private final int seams;
+	private final int[] ranks;
+
+	private SeamIndex(Axis axis, int width, int height, int seams, int[] ranks) {
+		this.axis = axis;
+		this.width = width;
+		this.height = height;
+		this.seams = seams;
+		this.ranks = ranks;
+	}
+
+	/**
+	 * Compute the first seams of an image
+	 * @param image Input image, which is not modified
+	 * @param axis Dimension reduced by the seams
+	 * @param seams Number of seams to compute
+	 * @param finder Algorithm used to find each seam
+	 * @return the index of the seams
+	 * @throws IllegalArgumentException seams &lt; 0 or seams &gt; axis.size(image) - 2
+	 * @see SeamIndex#extend
+	 **/
+	public static SeamIndex compute(Image image, Axis axis, int seams, SeamFinder finder) {
+		int[] ranks = new int[image.getWidth()*image.getHeight()];
+		Arrays.fill(ranks, KEPT);
+		return new SeamIndex(axis, image.getWidth(), image.getHeight(), 0, ranks).extend(image, seams, finder);
+	}
+
+	/**
+	 * Compute the seams following the seams of this index<br>
+	 * The search starts from the image reduced by the seams of this index, so the seams are the same
+	 * as if all of them had been computed at once. The state the finder kept from its previous searches is reset first.
+	 * @param image Original image of the index, which is not modified
+	 * @param seams Total number of seams of the new index, nothing is computed if it is not above the number of seams of this index
+	 * @param finder Algorithm used to find each seam
+	 * @return the index of the seams, this index if there is nothing to compute
+	 * @throws IllegalArgumentException the image has not the size of the index
+	 * @throws IllegalArgumentException seams &lt; 0 or seams &gt; axis.size(image) - 2
+	 **/
+	public SeamIndex extend(Image image, int seams, SeamFinder finder) {
+		check(image);
+		if (seams < 0 || seams > axis.size(image) - 2) {
+			throw new IllegalArgumentException("seams = " + seams + " must be >= 0 and <= " + (axis.size(image) - 2));
+		}
+		if (seams <= this.seams) {
+			return this;
+		}
+		finder.reset();
+		int[] ranks = this.ranks.clone();
+		Image reduced = image.removeSeams(axis, ranks, this.seams);
+		int[][] original = original(this.seams);
+		int[] positions;
+		for (int n = this.seams; n < seams; n++) {
+			ResizeTask.checkpoint();
+			positions = finder.find(reduced, axis);
+			for (int k = 0; k < positions.length; k++) {
+				int[] line = original[k];
+				ranks[(axis == Axis.WIDTH) ? k*width + line[positions[k]] : line[positions[k]]*width + k] = n;
+				System.arraycopy(line, positions[k] + 1, line, positions[k], line.length - 1 - positions[k]);
+			}
+			axis.remove(reduced, positions);
+			finder.seamRemoved(reduced, axis, positions);
+		}
+		return new SeamIndex(axis, width, height, seams, ranks);
+	}
+
+	/*
+	 * Return for each line (or column) the original positions of the pixels remaining after a number of seams
+	 */
+	private int[][] original(int count) {
+		int length = (axis == Axis.WIDTH) ? height : width, size = (axis == Axis.WIDTH) ? width : height;
+		int[][] original = new int[length][size - count];
+		for (int k = 0; k < length; k++) {
+			for (int p = 0, kept = 0; p < size; p++) {
+				if (ranks[(axis == Axis.WIDTH) ? k*width + p : p*width + k] >= count) {
+					original[k][kept++] = p;
+				}
+			}
+		}
+		return original;
+	}
+
+	private void check(Image image) {
+		if (image.getWidth() != width || image.getHeight() != height) {
+			throw new IllegalArgumentException("image of " + image.getWidth() + "x" + image.getHeight() + " must be of " + width + "x" + height);
+		}
+	}
+
+	/**
+	 * Remove the first seams of the index from an image
+	 * @param image Original image of the index, which is not modified
+	 * @param number Number of seams to remove
+	 * @return the reduced image
+	 * @throws IllegalArgumentException the image has not the size of the index
+	 * @throws IllegalArgumentException number &lt; 0 or number &gt; getSeams()
+	 * @see Image#removeSeams
+	 **/
+	public Image resize(Image image, int number) {
+		check(image);
+		if (number < 0 || number > seams) {
+			throw new IllegalArgumentException("number = " + number + " must be >= 0 and <= " + seams);
+		}
+		return image.removeSeams(axis, ranks, number);
+	}
+
+	/**
+	 * Return the dimension reduced by the seams
+	 * @return the dimension reduced by the seams
+	 **/
+	public Axis getAxis() {
+		return axis;
+	}
+
+	/**
+	 * Return the width of the original image
+	 * @return the width of the original image
+	 **/
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Return the height of the original image
+	 * @return the height of the original image
+	 **/
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Return the number of computed seams
+	 * @return the number of computed seams
+	 **/
+	public int getSeams() {
+		return seams;
+	}
+
+	/**
+	 * Return the rank of the seam which removes a pixel
+	 * @param i Line of the pixel in the original image
+	 * @param j Column of the pixel in the original image
+	 * @return the rank of the seam, {@link SeamIndex#KEPT} if the pixel is not removed
+	 **/
+	public int getRank(int i, int j) {
+		return ranks[i*width + j];
+	}
+
+	/**
+	 * Write the index in a file, each seam being stored as the original positions of its pixels
+	 * @param path Output file
+	 * @param tag Description of the source of the seams, checked when the file is read
+	 * @throws IOException Input/Output error
+	 * @see SeamIndex#read
+	 **/
+	public void write(Path path, String tag) throws IOException {
+		int length = (axis == Axis.WIDTH) ? height : width;
+		int[] positions = new int[seams*length];
+		for (int i = 0; i < height; i++) {
+			for (int j = 0; j < width; j++) {
+				if (ranks[i*width + j] != KEPT) {
+					positions[ranks[i*width + j]*length + ((axis == Axis.WIDTH) ? i : j)] = (axis == Axis.WIDTH) ? j : i;
+				}
+			}
+		}
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeUTF(tag);
+			output.writeUTF(axis.name());
+			output.writeInt(width);
+			output.writeInt(height);
+			output.writeInt(seams);
+			for (int position : positions) {
+				output.writeInt(position);
+			}
+		}
+	}
+
+	/**
+	 * Read an index written by {@link SeamIndex#write}
+	 * @param path Input file
+	 * @param tag Expected description of the source of the seams
+	 * @return the index, <b>null</b> if it has been written with another tag
+	 * @throws IOException Input/Output error, or the file is not a valid index
+	 * @see SeamIndex#write
+	 **/
+	public static SeamIndex read(Path path, String tag) throws IOException {
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+			if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+				throw new IOException(path + " is not a seam index");
+			}
+			if (!input.readUTF().equals(tag)) {
+				return null;
+			}
+			Axis axis;
+			try {
+				axis = Axis.valueOf(input.readUTF());
+			} catch (IllegalArgumentException e) {
+				throw new IOException(path + " is not a valid seam index", e);
+			}
+			int width = input.readInt(), height = input.readInt(), seams = input.readInt();
+			int length = (axis == Axis.WIDTH) ? height : width, size = (axis == Axis.WIDTH) ? width : height, position;
+			if (width <= 0 || height <= 0 || seams < 0 || seams > size - 2) {
+				throw new IOException(path + " is not a valid seam index");
+			}
+			int[] ranks = new int[width*height];
+			Arrays.fill(ranks, KEPT);
+			for (int n = 0; n < seams; n++) {
+				for (int k = 0; k < length; k++) {
+					position = input.readInt();
+					int index = (axis == Axis.WIDTH) ? k*width + position : position*width + k;
+					if (position < 0 || position >= size || ranks[index] != KEPT) {
+						throw new IOException(path + " is not a valid seam index");
+					}
+					ranks[index] = n;
+				}
+			}
+			return new SeamIndex(axis, width, height, seams, ranks);
+		}
+	}
+
+}
@@ -0,0 +1,120 @@
+package cair.graph;
+
+import java.util.function.IntConsumer;
+
+import cair.image.Image;
+
+/**
+ * Order of the removals when both the width and the height of an image are reduced
+ * @see SeamCarving#contentAwareResizing(Image, int, int, SeamFinder, SeamOrder, IntConsumer)
+ **/
+public enum SeamOrder {
+
+	/**
+	 * At each step, the column and the line of the image are searched and the one of lowest energy is removed<br>
+	 * Two seams are searched for each removal.
+	 * @see SeamFinder#energy
+	 **/
+	GREEDY {
+		@Override
+		Image resize(Image image, int numberColumn, int numberLine, SeamFinder finder, IntConsumer observer) {
+			int[] column, line;
+			for (int i = 0; numberColumn > 0 || numberLine > 0; i++) {
+				column = (numberColumn > 0) ? finder.find(image, Axis.WIDTH) : null;
+				line = (numberLine > 0) ? finder.find(image, Axis.HEIGHT) : null;
+				if (line == null || (column != null && finder.energy(image, Axis.WIDTH, column) <= finder.energy(image, Axis.HEIGHT, line))) {
+					Axis.WIDTH.remove(image, column);
+					finder.seamRemoved(image, Axis.WIDTH, column);
+					numberColumn--;
+				} else {
+					Axis.HEIGHT.remove(image, line);
+					finder.seamRemoved(image, Axis.HEIGHT, line);
+					numberLine--;
+				}
+				observer.accept(i);
+			}
+			return image;
+		}
+	},
+
+	/**
+	 * The order minimizing the total energy of the removed seams, computed by dynamic programming<br>
+	 * The lowest energy <b>T(r,c)</b> to remove <b>r</b> lines and <b>c</b> columns is the minimum of
+	 * <b>T(r-1,c)</b> plus the energy of the best line of the corresponding image and
+	 * <b>T(r,c-1)</b> plus the energy of the best column of the corresponding image.
+	 * The table is filled along the dimension with the most seams, keeping the images of the previous step only,
+	 * so <b>2*(min(numberColumn, numberLine)+1)</b> copies of the image are kept
+	 * and <b>2*numberColumn*numberLine</b> seams are searched, the energy being computed again for most of them.
+	 * The table is limited to {@link SeamOrder#OPTIMAL_LIMIT} cells.<br>
+	 * The input image is not modified, the result is a copy.
+	 * @see SeamFinder#energy
+	 **/
+	OPTIMAL {
+		@Override
+		Image resize(Image image, int numberColumn, int numberLine, SeamFinder finder, IntConsumer observer) {
+			if ((long) numberColumn*numberLine > OPTIMAL_LIMIT) {
+				throw new IllegalArgumentException("numberColumn*numberLine = " + (long) numberColumn*numberLine + " must be <= " + OPTIMAL_LIMIT);
+			}
+			Axis inner = (numberColumn <= numberLine) ? Axis.WIDTH : Axis.HEIGHT, outer = (inner == Axis.WIDTH) ? Axis.HEIGHT : Axis.WIDTH;
+			int innerCount = Math.min(numberColumn, numberLine), outerCount = Math.max(numberColumn, numberLine);
+			Image[] previous = null, current = new Image[innerCount + 1];
+			long[] previousEnergy = null, currentEnergy = new long[innerCount + 1];
+			int[] innerSeam, outerSeam;
+			long fromInner, fromOuter;
+			int cells = (innerCount + 1)*(outerCount + 1) - 1, done = 0, notified = -1, progress;
+			for (int o = 0; o <= outerCount; o++) {
+				for (int k = 0; k <= innerCount; k++) {
+					if (o == 0 && k == 0) {
+						current[0] = image.copy();
+						continue;
+					}
+					innerSeam = (k > 0) ? finder.find(current[k-1], inner) : null;
+					outerSeam = (o > 0) ? finder.find(previous[k], outer) : null;
+					fromInner = (innerSeam != null) ? currentEnergy[k-1] + finder.energy(current[k-1], inner, innerSeam) : Long.MAX_VALUE;
+					fromOuter = (outerSeam != null) ? previousEnergy[k] + finder.energy(previous[k], outer, outerSeam) : Long.MAX_VALUE;
+					if (fromInner < fromOuter || (fromInner == fromOuter && inner == Axis.WIDTH)) {
+						current[k] = current[k-1].copy();
+						inner.remove(current[k], innerSeam);
+						currentEnergy[k] = fromInner;
+					} else {
+						current[k] = previous[k];
+						outer.remove(current[k], outerSeam);
+						finder.seamRemoved(current[k], outer, outerSeam);
+						currentEnergy[k] = fromOuter;
+					}
+					if (o > 0) {
+						previous[k] = null;
+					}
+					progress = (int) ((long) ++done*(numberColumn + numberLine)/cells);
+					while (notified < progress - 1) {
+						observer.accept(++notified);
+					}
+				}
+				if (o < outerCount) {
+					previous = current;
+					previousEnergy = currentEnergy;
+					current = new Image[innerCount + 1];
+					currentEnergy = new long[innerCount + 1];
+				}
+			}
+			return current[innerCount];
+		}
+	};
+
+	/**
+	 * Maximum value of <b>numberColumn*numberLine</b> for the {@link #OPTIMAL} order
+	 **/
+	public static final int OPTIMAL_LIMIT = 4096;
+
+	/**
+	 * Remove the columns and the lines of the image
+	 * @param image Input image
+	 * @param numberColumn Number of columns to remove
+	 * @param numberLine Number of lines to remove
+	 * @param finder Algorithm used to find each column and line
+	 * @param observer Notification function called with the progress
+	 * @return the reduced image
+	 **/
+	abstract Image resize(Image image, int numberColumn, int numberLine, SeamFinder finder, IntConsumer observer);
+
+}
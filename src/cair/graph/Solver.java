@@ -0,0 +1,61 @@
+package cair.graph;
+
+/**
+ * Available maximum flow algorithms
+ * @see SeamCarving#contentAwareResizing(cair.image.Image, int, Solver, java.util.function.IntConsumer)
+ **/
+public enum Solver {
+
+	/**
+	 * The <b>Edmonds-Karp</b> algorithm on {@link Graph}, the buffers of the searches are kept between two columns<br>
+	 * The searches follow the residual graph, so the cut is minimal and the seam has the energy of the seams of the other solvers.
+	 * @see SeamCarving#fordFulkerson(Graph, PathSearch)
+	 **/
+	EDMONDS_KARP {
+		@Override
+		public MaxFlow newInstance() {
+			PathSearch search = new PathSearch(0);
+			return (gradient, width, height) -> SeamCarving.fordFulkerson(SeamCarving.toGraph(gradient, width, height, new Graph(width*height + 2)), search);
+		}
+	},
+
+	/**
+	 * The <b>Dinic</b> algorithm on {@link CsrGraph}
+	 * @see Dinic
+	 **/
+	DINIC {
+		@Override
+		public MaxFlow newInstance() {
+			return new Dinic();
+		}
+	},
+
+	/**
+	 * The <b>Boykov-Kolmogorov</b> algorithm on {@link CsrGraph}
+	 * @see BoykovKolmogorov
+	 **/
+	BOYKOV_KOLMOGOROV {
+		@Override
+		public MaxFlow newInstance() {
+			return new BoykovKolmogorov();
+		}
+	},
+
+	/**
+	 * The parallel <b>push-relabel</b> algorithm on {@link CsrGraph}, using the common thread pool
+	 * @see PushRelabel
+	 **/
+	PUSH_RELABEL {
+		@Override
+		public MaxFlow newInstance() {
+			return new PushRelabel();
+		}
+	};
+
+	/**
+	 * Create a new instance of the algorithm
+	 * @return a new instance of the algorithm
+	 **/
+	public abstract MaxFlow newInstance();
+
+}
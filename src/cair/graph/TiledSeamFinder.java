@@ -0,0 +1,174 @@
+package cair.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+/**
+ * Find the column to remove by cutting horizontal strips of the image in parallel<br>
+ * The image is split in strips of <b>stripHeight</b> lines, each strip being extended by <b>overlap</b> lines above and below,
+ * and the graph of each extended strip is cut in a thread pool.
+ * Two consecutive strips are joined by the cheapest connected path which leaves the column above on a line of the overlap
+ * and reaches the column of the strip on a line of the overlap. When both columns are too far apart to meet in the overlap,
+ * the column of the strip is replaced by the cheapest path continuing the column above through its lines.
+ * These paths are searched by dynamic programming on the lines of the overlap, which are the graph of the boundary,
+ * so the result is still a connected column.<br>
+ * The graphs only hold one strip each and an algorithm instance is only created for each strip processed at the same time,
+ * so the memory of the graphs depends on the size of the strips and on the number of threads, not on the height of the image.
+ * Each strip only sees its own lines, so the column may differ from the best one of the whole image :
+ * on the example images its energy is often 2 to 3 times the lowest one, whatever the size of the strips and of the overlap.
+ * This finder is meant for the images whose whole graph does not fit in memory.
+ **/
+public class TiledSeamFinder extends GradientSeamFinder {
+
+	/**
+	 * Default number of lines of a strip
+	 **/
+	public static int STRIP_HEIGHT = 256;
+
+	/**
+	 * Default number of lines shared by two consecutive strips on each side of their boundary
+	 **/
+	public static int OVERLAP = 16;
+
+	private static final long UNREACHABLE = Long.MAX_VALUE;
+
+	private final Supplier<MaxFlow> solvers;
+	private final int stripHeight;
+	private final int overlap;
+	private final ForkJoinPool pool;
+	private final Queue<MaxFlow> idle = new ConcurrentLinkedQueue<>();
+	private long[] cost = new long[0];
+	private int[] from = new int[0];
+
+	/**
+	 * Construct the seam finder
+	 * @param solvers Creation of the maximum flow algorithm instances, one instance is used by one strip at a time
+	 * @param stripHeight Number of lines of a strip
+	 * @param overlap Number of lines shared by two consecutive strips on each side of their boundary
+	 * @param pool Thread pool cutting the strips
+	 * @throws IllegalArgumentException stripHeight &le; 0
+	 * @throws IllegalArgumentException overlap &le; 0
+	 * @see Solver#newInstance
+	 **/
+	public TiledSeamFinder(Supplier<MaxFlow> solvers, int stripHeight, int overlap, ForkJoinPool pool) {
+		if (stripHeight <= 0) {
+			throw new IllegalArgumentException("stripHeight = " + stripHeight + " must be > 0");
+		}
+		if (overlap <= 0) {
+			throw new IllegalArgumentException("overlap = " + overlap + " must be > 0");
+		}
+		this.solvers = solvers;
+		this.stripHeight = stripHeight;
+		this.overlap = overlap;
+		this.pool = pool;
+	}
+
+	/**
+	 * Construct the seam finder with the default strips
+	 * @param solver Maximum flow algorithm cutting the strips
+	 * @param pool Thread pool cutting the strips
+	 * @see TiledSeamFinder#STRIP_HEIGHT
+	 * @see TiledSeamFinder#OVERLAP
+	 **/
+	public TiledSeamFinder(Solver solver, ForkJoinPool pool) {
+		this(solver::newInstance, STRIP_HEIGHT, OVERLAP, pool);
+	}
+
+	@Override
+	protected int[] find(int[][] gradient, int width, int height) {
+		int strips = (height + stripHeight - 1)/stripHeight;
+		int[] positions = new int[height], first = new int[strips], last = new int[strips];
+		int[][] seams = new int[strips][];
+		List<ForkJoinTask<int[]>> tasks = new ArrayList<>(strips);
+		for (int s = 0; s < strips; s++) {
+			int top = Math.max(0, s*stripHeight - overlap), bottom = Math.min(height, (s + 1)*stripHeight + overlap);
+			first[s] = top;
+			last[s] = bottom;
+			tasks.add(pool.submit(() -> cut(gradient, width, top, bottom)));
+		}
+		for (int s = 0; s < strips; s++) {
+			seams[s] = tasks.get(s).join();
+		}
+		System.arraycopy(seams[0], 0, positions, 0, last[0]);
+		for (int s = 1; s < strips; s++) {
+			join(gradient, width, positions, seams[s], first[s], last[s], last[s-1]);
+		}
+		return positions;
+	}
+
+	/*
+	 * Cut the graph of the lines from top (inclusive) to bottom (exclusive)
+	 */
+	private int[] cut(int[][] gradient, int width, int top, int bottom) {
+		MaxFlow maxFlow = idle.poll();
+		if (maxFlow == null) {
+			maxFlow = solvers.get();
+		}
+		try {
+			int[][] strip = Arrays.copyOfRange(gradient, top, bottom);
+			return SeamCarving.verticesToPixelsPosition(maxFlow.minCut(strip, width, bottom - top), bottom - top);
+		} finally {
+			idle.add(maxFlow);
+		}
+	}
+
+	/*
+	 * Append the column of a strip, known from the line top to the line bottom, to the column found up to the line end :
+	 * the cheapest connected path leaving the column above and joining the column of the strip on lines from top to end,
+	 * or continuing the column above down to the line bottom when it can not join the column of the strip before end
+	 */
+	private void join(int[][] gradient, int width, int[] positions, int[] seam, int top, int bottom, int end) {
+		int lines = bottom - top, exit = -1, best = -1, k;
+		long above = 0, below = 0, total = 0, least = 0, previous;
+		if (cost.length < lines*width) {
+			cost = new long[lines*width];
+			from = new int[lines*width];
+		}
+		for (int i = top; i < end; i++) {
+			total += gradient[i][seam[i - top]];
+		}
+		for (int i = top, r = 0; i < bottom && (exit < 0 || i < end); i++, r++) {
+			if (i < end) {
+				above += gradient[i][positions[i]];
+				below += gradient[i][seam[r]];
+			}
+			for (int j = 0; j < width; j++) {
+				k = -1;
+				previous = (i < end && j == positions[i]) ? above : UNREACHABLE;
+				for (int n = Math.max(0, j - 1); r > 0 && n <= Math.min(width - 1, j + 1); n++) {
+					if (cost[(r-1)*width + n] != UNREACHABLE && cost[(r-1)*width + n] + gradient[i][j] < previous) {
+						previous = cost[(r-1)*width + n] + gradient[i][j];
+						k = n;
+					}
+				}
+				cost[r*width + j] = previous;
+				from[r*width + j] = k;
+			}
+			if (i < end && cost[r*width + seam[r]] != UNREACHABLE && (exit < 0 || cost[r*width + seam[r]] + total - below < least)) {
+				least = cost[r*width + seam[r]] + total - below;
+				exit = i;
+				best = seam[r];
+			}
+		}
+		if (exit < 0) {
+			exit = bottom - 1;
+			for (int j = 0; j < width; j++) {
+				if (cost[(exit-top)*width + j] != UNREACHABLE && (best < 0 || cost[(exit-top)*width + j] < cost[(exit-top)*width + best])) {
+					best = j;
+				}
+			}
+		}
+		System.arraycopy(seam, exit + 1 - top, positions, exit + 1, bottom - exit - 1);
+		for (int i = exit; best >= 0; i--) {
+			positions[i] = best;
+			best = from[(i-top)*width + best];
+		}
+	}
+
+}
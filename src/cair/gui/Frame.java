@@ -7,6 +7,10 @@ import java.awt.event.ActionListener;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.swing.JButton;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
@@ -14,7 +18,10 @@ import javax.swing.JOptionPane;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
-import cair.graph.SeamCarving;
+import cair.graph.GraphCutSeamFinder;
+import cair.graph.ResizeTask;
+import cair.graph.SeamOrder;
+import cair.graph.Solver;
 import cair.image.Image;
 
 public class Frame extends JFrame {
@@ -33,7 +40,10 @@ public class Frame extends JFrame {
 	private final JButton validate;
 	private final ProgressBar progress;
 	
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+	
 	private Image inputImage;
+	private volatile ResizeTask task;
 	
 	public Frame() {
 		contentPane = getContentPane();
@@ -80,6 +90,10 @@ public class Frame extends JFrame {
 		validate.addActionListener(new ActionListener() {
 			@Override
 			public void actionPerformed(ActionEvent event) {
+				if (task != null) {
+					task.cancel(true);
+					return;
+				}
 				String name = output.getText();
 				char c;
 				if (name.isEmpty()) {
@@ -101,28 +115,42 @@ public class Frame extends JFrame {
 				if (numberPixels == 0) {
 					return;
 				}
-				Thread thread = new Thread(new Runnable() {
+				ResizeTask resize = new ResizeTask(
+						inputImage,
+						numberPixels,
+						0,
+						new GraphCutSeamFinder(Solver.PUSH_RELABEL.newInstance()),
+						SeamOrder.GREEDY,
+						(phase, done, total) -> {
+							if (phase == ResizeTask.Phase.REMOVAL) {
+								progress.increment();
+							}
+						}
+				);
+				task = resize;
+				executor.execute(new Runnable() {
 					@Override
 					public void run() {
 						setBusyState();
 						progress.setValue(0);
 						progress.setMaximum(numberPixels);
-						Image resultImage = SeamCarving.contentAwareResizing(
-								inputImage,
-								numberPixels,
-								__ -> progress.increment()
-						);
+						resize.run();
 						try {
-							resultImage.write(output.getText());
-						} catch (IOException e) {
+							resize.get().write(output.getText());
+						} catch (CancellationException e) {
+							JOptionPane.showMessageDialog(null, "Resizing cancelled after " + resize.getDone() + " columns", "Cancelled", JOptionPane.INFORMATION_MESSAGE);
+						} catch (ExecutionException | IOException e) {
 							e.printStackTrace();
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
 						}
+						task = null;
 						setUsableState();
 						setPixelChooserState(false);
+						validate.setEnabled(false);
 						slider.setMaximum(50);
 					}
 				});
-				thread.start();
 			}
 		});
 		pixels.setText(String.valueOf(slider.getValue()));
@@ -138,6 +166,7 @@ public class Frame extends JFrame {
 		setSize(new Dimension(320, 218));
 		contentPane.remove(progress);
 		contentPane.repaint();
+		validate.setText("Validate");
 		output.setEditable(true);
 		chooseFile.setEnabled(true);
 		setPixelChooserState(true);
@@ -152,7 +181,7 @@ public class Frame extends JFrame {
 		output.setEditable(false);
 		chooseFile.setEnabled(false);
 		setPixelChooserState(false);
-		validate.setEnabled(false);
+		validate.setText("Cancel");
 	}
 	
 	private JButton createChooseFileButton() {
@@ -1,26 +1,75 @@
 package cair.image;
 
-import java.awt.Color;
 import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.WritableRaster;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 import javax.imageio.ImageIO;
 
+import cair.graph.Axis;
 import cair.graph.SeamCarving;
+import cair.metrics.Metrics;
 
+/**
+ * Image stored as flat arrays<br>
+ * The pixels are packed ARGB values and the grey levels are stored line by line in arrays of <b>stride*height</b> values,
+ * where the stride is the width of the image when it was read.
+ * Removing pixels only shifts the arrays, the {@link BufferedImage} is created when the image is written.<br>
+ * With a lazy threshold, the removed columns are only marked in a bitmap of the removed pixels of each line,
+ * the arrays are shifted at once when the threshold is reached or when the image is written.<br>
+ * The grey levels and the gradients of the images of at least {@link Image#PARALLEL_THRESHOLD} pixels
+ * are computed by several threads, each one handling whole lines, so the values are the same as with one thread.<br>
+ * Besides the formats of {@link ImageIO}, the binary <b>PPM</b> and <b>PGM</b> files are read and written
+ * through a memory mapping of the file, the samples going straight from the mapping to the arrays of the image.
+ * @see Image#setLazyThreshold
+ **/
 public class Image {
 	
 	private int width;
 	private int height;
-	private final BufferedImage image;
-	private final int[][] grey;
+	private final int stride;
+	private final ColorModel colorModel;
+	private final int[] pixels;
+	private final int[] grey;
+	private final int words;
+	private long[] removed;
+	private int pending;
+	private int lazyThreshold;
 	
 	/**
 	 * Processed format file
 	 **/
 	public static String EXTENSION = "png";
 	
+	/**
+	 * Minimum number of pixels of an image whose grey levels and gradients are computed in parallel
+	 **/
+	public static int PARALLEL_THRESHOLD = 1 << 16;
+	
+	/**
+	 * Number of columns of the vertical gradient computed at once by a thread
+	 **/
+	private static final int COLUMN_BLOCK = 64;
+	
+	/**
+	 * Maximum number of bytes of the file mapped at once
+	 **/
+	private static final long MAPPING = 1 << 30;
+	
 	/**
 	 * Construct an image
 	 * @param image Image
@@ -30,8 +79,58 @@ public class Image {
 	private Image(BufferedImage image) {
 		this.width = image.getWidth();
 		this.height = image.getHeight();
-		this.image = image;
-		this.grey = rgbToGrey(image);
+		this.stride = width;
+		this.colorModel = image.getColorModel();
+		this.pixels = new int[height*stride];
+		this.grey = new int[height*stride];
+		lines(height, i -> {
+			readLine(image, pixels, i*stride, i, width);
+			rgbToGrey(pixels, grey, i*stride, width);
+		});
+		this.words = (stride + 63)/64;
+	}
+	
+	/**
+	 * Construct an image whose arrays are filled by the caller
+	 * @param width Width of the image
+	 * @param height Height of the image
+	 * @param colorModel Color model of the written files, <b>null</b> for 24-bit RGB
+	 * @see Image#readRaw
+	 * @see Image#removeSeams
+	 */
+	private Image(int width, int height, ColorModel colorModel) {
+		this.width = width;
+		this.height = height;
+		this.stride = width;
+		this.colorModel = colorModel;
+		this.pixels = new int[height*stride];
+		this.grey = new int[height*stride];
+		this.words = (stride + 63)/64;
+	}
+	
+	/**
+	 * Construct a copy of an image
+	 * @param image Image to copy
+	 * @see Image#copy
+	 */
+	private Image(Image image) {
+		image.compact();
+		this.width = image.width;
+		this.height = image.height;
+		this.stride = image.stride;
+		this.colorModel = image.colorModel;
+		this.pixels = Arrays.copyOf(image.pixels, height*stride);
+		this.grey = Arrays.copyOf(image.grey, height*stride);
+		this.words = image.words;
+		this.lazyThreshold = image.lazyThreshold;
+	}
+	
+	/**
+	 * Return a copy of the image, which can be reduced independently of this image
+	 * @return a copy of the image
+	 **/
+	public Image copy() {
+		return new Image(this);
 	}
 	
 	/**
@@ -53,6 +152,124 @@ public class Image {
 		return width;
 	}
 	
+	/**
+	 * Change the number of columns which can be removed before the pixels are shifted<br>
+	 * Under this threshold, the removed pixels of each line are only marked in a bitmap.
+	 * A threshold of 0 or 1 shifts the pixels each time a column is removed.
+	 * @param lazyThreshold Maximum number of removed columns which are not shifted yet
+	 * @throws IllegalArgumentException lazyThreshold &lt; 0
+	 * @see Image#removePixelsWidth
+	 * @see Image#compact
+	 **/
+	public void setLazyThreshold(int lazyThreshold) {
+		if (lazyThreshold < 0) {
+			throw new IllegalArgumentException("lazyThreshold = " + lazyThreshold + " must be >= 0");
+		}
+		this.lazyThreshold = lazyThreshold;
+		if (pending >= lazyThreshold) {
+			compact();
+		}
+	}
+	
+	/**
+	 * Shift the pixels over all the removed columns which were only marked
+	 * @see Image#setLazyThreshold
+	 **/
+	public void compact() {
+		if (pending == 0) {
+			return;
+		}
+		for (int i = 0; i < height; i++) {
+			gather(pixels, i, pixels, i*stride);
+			gather(grey, i, grey, i*stride);
+		}
+		Arrays.fill(removed, 0L);
+		pending = 0;
+		Metrics.count(Metrics.Counter.BYTES_MOVED, 8L*width*height);
+	}
+	
+	/*
+	 * Copy the values of the remaining pixels of a line
+	 */
+	private void gather(int[] buffer, int i, int[] line, int offset) {
+		int row = i*stride, physicalWidth = width + pending, count = 0, length;
+		long word;
+		for (int w = 0; w < words && w*64 < physicalWidth; w++) {
+			word = removed[i*words + w];
+			length = Math.min(64, physicalWidth - w*64);
+			if (word == 0) {
+				System.arraycopy(buffer, row + w*64, line, offset + count, length);
+				count += length;
+			} else {
+				for (int b = 0; b < length; b++) {
+					if ((word & (1L << b)) == 0) {
+						line[offset + count++] = buffer[row + w*64 + b];
+					}
+				}
+			}
+		}
+	}
+	
+	/*
+	 * Return the index in the arrays of the j-th remaining pixel of a line
+	 */
+	private int physicalColumn(int i, int j) {
+		long free;
+		int count;
+		if (pending == 0) {
+			return j;
+		}
+		for (int w = 0; ; w++) {
+			free = ~removed[i*words + w];
+			count = Long.bitCount(free);
+			if (j < count) {
+				for (int k = 0; k < j; k++) {
+					free &= free - 1;
+				}
+				return w*64 + Long.numberOfTrailingZeros(free);
+			}
+			j -= count;
+		}
+	}
+	
+	/**
+	 * Return the grey levels of the image line by line
+	 * @return the grey levels, as an array of <b>height</b> arrays of <b>width</b> values
+	 * @see Image#columnGreyLevels
+	 **/
+	public int[][] greyLevels() {
+		int[][] levels = new int[height][width];
+		if (pending > 0) {
+			lines(height, i -> gather(grey, i, levels[i], 0));
+		} else {
+			lines(height, i -> System.arraycopy(grey, i*stride, levels[i], 0, width));
+		}
+		return levels;
+	}
+	
+	/**
+	 * Return the grey levels of the image column by column, like the column gradient
+	 * @return the grey levels, as an array of <b>width</b> arrays of <b>height</b> values
+	 * @see Image#greyLevels
+	 * @see Image#columnGradient
+	 **/
+	public int[][] columnGreyLevels() {
+		compact();
+		int[][] levels = new int[width][height];
+		IntStream blocks = IntStream.range(0, (width + COLUMN_BLOCK - 1)/COLUMN_BLOCK);
+		if ((long) width*height >= PARALLEL_THRESHOLD) {
+			blocks = blocks.parallel();
+		}
+		blocks.forEach(b -> {
+			for (int i = 0; i < height; i++) {
+				for (int j = b*COLUMN_BLOCK; j < Math.min(width, (b + 1)*COLUMN_BLOCK); j++) {
+					levels[j][i] = grey[i*stride + j];
+				}
+			}
+		});
+		return levels;
+	}
+	
 	/**
 	 * Compute the horizontal gradient of an image
 	 * @return the gradient of the image
@@ -65,37 +282,160 @@ public class Image {
 			throw new IllegalArgumentException("width = " + width + " must be > 1");
 		}
 		int[][] gradient = new int[height][width];
-		for (int i = 0; i < height; i++) {
-			gradient[i][0] = Math.abs(grey[i][0] - grey[i][1]);
-			for (int j = 1; j < width-1; j++) {
-				gradient[i][j] = Math.abs(grey[i][j] - (grey[i][j-1] + grey[i][j+1])/2);
-			}
-			gradient[i][width-1] = Math.abs(grey[i][width-1] - grey[i][width-2]);
+		if (pending > 0) {
+			lines(height, i -> {
+				int[] line = new int[width];
+				gather(grey, i, line, 0);
+				horizontalGradient(line, 0, gradient[i], width);
+			});
+		} else {
+			lines(height, i -> horizontalGradient(grey, i*stride, gradient[i], width));
 		}
 		return gradient;
 	}
 	
+	/*
+	 * Compute the horizontal gradient of the line of grey levels starting at the index row
+	 */
+	private static void horizontalGradient(int[] values, int row, int[] gradient, int width) {
+		gradient[0] = Math.abs(values[row] - values[row + 1]);
+		for (int j = 1; j < width-1; j++) {
+			gradient[j] = Math.abs(values[row + j] - (values[row + j-1] + values[row + j+1])/2);
+		}
+		gradient[width-1] = Math.abs(values[row + width-1] - values[row + width-2]);
+	}
+	
 	/**
-	 * Compute the horizontal gradient of an image
-	 * @return the gradient of the image
+	 * Update the horizontal gradient of the image after a column has been removed<br>
+	 * Each line of the gradient is shifted over the removed pixel,
+	 * then only the values of the two pixels which were next to the removed pixel are computed again.
+	 * @param gradient Horizontal gradient of the image before the removal, only the first <b>width</b> values of each line are updated
+	 * @param positions Positions of the removed pixels
 	 * @throws IllegalArgumentException image.width &le; 1
-	 * @see SeamCarving#toGraph
 	 * @see Image#horizontalGradient
+	 * @see Image#removePixelsWidth
+	 **/
+	public void updateHorizontalGradient(int[][] gradient, int[] positions) {
+		if (width <= 1) {
+			throw new IllegalArgumentException("width = " + width + " must be > 1");
+		}
+		int row;
+		for (int i = 0; i < height; i++) {
+			row = i*stride;
+			System.arraycopy(gradient[i], positions[i] + 1, gradient[i], positions[i], width - positions[i]);
+			for (int j = Math.max(0, positions[i] - 1); j <= Math.min(width - 1, positions[i]); j++) {
+				if (j == 0) {
+					gradient[i][j] = Math.abs(grey[row + physicalColumn(i, 0)] - grey[row + physicalColumn(i, 1)]);
+				} else if (j == width - 1) {
+					gradient[i][j] = Math.abs(grey[row + physicalColumn(i, width-1)] - grey[row + physicalColumn(i, width-2)]);
+				} else {
+					gradient[i][j] = Math.abs(grey[row + physicalColumn(i, j)] - (grey[row + physicalColumn(i, j-1)] + grey[row + physicalColumn(i, j+1)])/2);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Compute the vertical gradient of an image
+	 * @return the gradient of the image, as an array of <b>height</b> arrays of <b>width</b> values
+	 * @throws IllegalArgumentException image.height &le; 1
+	 * @see Image#horizontalGradient
+	 * @see Image#columnGradient
 	 **/
 	public int[][] verticalGradient () {
 		if (height <= 1) {
 			throw new IllegalArgumentException("height = " + height + " must be > 1");
 		}
+		compact();
 		int[][] gradient = new int[height][width];
-		for (int j = 0; j < width; j++) {
-			gradient[0][j] = Math.abs(grey[0][j] - grey[1][j]);
-			for (int i = 1; i < height-1; i++) {
-				gradient[i][j] = Math.abs(grey[i][j] - (grey[i-1][j] + grey[i+1][j])/2);
+		lines(height, i -> {
+			int row = i*stride, neighbour = (i == 0) ? row + stride : row - stride;
+			for (int j = 0; j < width; j++) {
+				if (i == 0 || i == height - 1) {
+					gradient[i][j] = Math.abs(grey[row + j] - grey[neighbour + j]);
+				} else {
+					gradient[i][j] = Math.abs(grey[row + j] - (grey[row - stride + j] + grey[row + stride + j])/2);
+				}
 			}
-			gradient[height-1][j] = Math.abs(grey[height-1][j] - grey[height-2][j]);
+		});
+		return gradient;
+	}
+	
+	/**
+	 * Compute the vertical gradient of an image column by column<br>
+	 * The gradient is stored column by column, the <b>j</b>-th array contains the gradient of the <b>j</b>-th column,
+	 * so the lines to remove are searched like the columns in the transposed image.
+	 * The columns are computed by blocks, each block reading the grey levels line by line.
+	 * @return the gradient of the image, as an array of <b>width</b> arrays of <b>height</b> values
+	 * @throws IllegalArgumentException image.height &le; 1
+	 * @see SeamCarving#toGraph
+	 * @see Image#horizontalGradient
+	 * @see Image#updateColumnGradient
+	 **/
+	public int[][] columnGradient () {
+		if (height <= 1) {
+			throw new IllegalArgumentException("height = " + height + " must be > 1");
+		}
+		compact();
+		int[][] gradient = new int[width][height];
+		IntStream blocks = IntStream.range(0, (width + COLUMN_BLOCK - 1)/COLUMN_BLOCK);
+		if ((long) width*height >= PARALLEL_THRESHOLD) {
+			blocks = blocks.parallel();
 		}
+		blocks.forEach(b -> columnGradient(gradient, b*COLUMN_BLOCK, Math.min(width, (b + 1)*COLUMN_BLOCK)));
 		return gradient;
 	}
+	
+	/*
+	 * Compute the vertical gradient of the columns from first (inclusive) to last (exclusive)
+	 */
+	private void columnGradient(int[][] gradient, int first, int last) {
+		int row;
+		for (int j = first; j < last; j++) {
+			gradient[j][0] = Math.abs(grey[j] - grey[stride + j]);
+		}
+		for (int i = 1; i < height-1; i++) {
+			row = i*stride;
+			for (int j = first; j < last; j++) {
+				gradient[j][i] = Math.abs(grey[row + j] - (grey[row - stride + j] + grey[row + stride + j])/2);
+			}
+		}
+		row = (height-1)*stride;
+		for (int j = first; j < last; j++) {
+			gradient[j][height-1] = Math.abs(grey[row + j] - grey[row - stride + j]);
+		}
+	}
+	
+	/**
+	 * Update the vertical gradient of the image after a line has been removed<br>
+	 * Each column of the gradient is shifted over the removed pixel,
+	 * then only the values of the two pixels which were next to the removed pixel are computed again.
+	 * @param gradient Vertical gradient of the image before the removal, only the first <b>height</b> values of each column are updated
+	 * @param positions Positions of the removed pixels
+	 * @throws IllegalArgumentException image.height &le; 1
+	 * @see Image#columnGradient
+	 * @see Image#removePixelsHeight
+	 **/
+	public void updateColumnGradient(int[][] gradient, int[] positions) {
+		if (height <= 1) {
+			throw new IllegalArgumentException("height = " + height + " must be > 1");
+		}
+		compact();
+		int row;
+		for (int j = 0; j < width; j++) {
+			System.arraycopy(gradient[j], positions[j] + 1, gradient[j], positions[j], height - positions[j]);
+			for (int i = Math.max(0, positions[j] - 1); i <= Math.min(height - 1, positions[j]); i++) {
+				row = i*stride + j;
+				if (i == 0) {
+					gradient[j][i] = Math.abs(grey[row] - grey[row + stride]);
+				} else if (i == height - 1) {
+					gradient[j][i] = Math.abs(grey[row] - grey[row - stride]);
+				} else {
+					gradient[j][i] = Math.abs(grey[row] - (grey[row - stride] + grey[row + stride])/2);
+				}
+			}
+		}
+	}
 
 	/**
 	 * Reduce the width of the image
@@ -103,66 +443,381 @@ public class Image {
 	 * where the i-th value contains the value on x of the position (a coordinate on the image is represented by i, arr[i])
 	 * @param positions Pixel positions of the image to remove
 	 * @see SeamCarving#contentAwareResizing
+	 * @see Image#setLazyThreshold
 	 **/
 	public void removePixelsWidth (int[] positions) {
-		for (int i = 0; i < height; i++) {
-			for (int j = positions[i]; j < width-1; j++) {
-				image.setRGB(j, i, image.getRGB(j+1, i));
-				grey[i][j] = grey[i][j+1];
+		int position;
+		long start = Metrics.start(), moved = 0;
+		if (lazyThreshold > 1) {
+			if (removed == null) {
+				removed = new long[height*words];
+			}
+			for (int i = 0; i < height; i++) {
+				position = physicalColumn(i, positions[i]);
+				removed[i*words + position/64] |= 1L << (position%64);
+			}
+			width--;
+			pending++;
+			if (pending >= lazyThreshold) {
+				compact();
 			}
+		} else {
+			for (int i = 0; i < height; i++) {
+				position = i*stride + positions[i];
+				System.arraycopy(pixels, position + 1, pixels, position, width-1 - positions[i]);
+				System.arraycopy(grey, position + 1, grey, position, width-1 - positions[i]);
+				moved += width-1 - positions[i];
+			}
+			width--;
 		}
-		width--;
+		Metrics.count(Metrics.Counter.BYTES_MOVED, 8*moved);
+		Metrics.stop(Metrics.Phase.REMOVAL, start);
+		Metrics.seamRemoved(Axis.WIDTH.name());
 	}
 	
 	/**
 	 * Reduce the height of the image
-	 * Because we want to remove a pixel at each line, we use a 1D array of a size equal to the width the image,
-	 * where the i-th value contains the value on y of the position (a coordinate on the image is represented by arr[i], i)
+	 * Because we want to remove a pixel at each column, we use a 1D array of a size equal to the width the image,
+	 * where the j-th value contains the value on y of the position (a coordinate on the image is represented by arr[j], j).
+	 * The lines are shifted one after the other, so the arrays are read in order.
 	 * @param positions Pixel positions of the image to remove
 	 * @see SeamCarving#contentAwareResizing
+	 * @see Image#updateColumnGradient
 	 **/
 	public void removePixelsHeight (int[] positions) {
-		for (int j = 0; j < width; j++) {
-			for (int i = positions[j]; i < height-1; i++) {
-				image.setRGB(j, i, image.getRGB(j, i+1));
-				grey[i][j] = grey[i+1][j];
+		int position;
+		long start = Metrics.start(), moved = 0;
+		compact();
+		for (int i = 0; i < height-1; i++) {
+			position = i*stride;
+			for (int j = 0; j < width; j++) {
+				if (positions[j] <= i) {
+					pixels[position + j] = pixels[position + stride + j];
+					grey[position + j] = grey[position + stride + j];
+				}
 			}
 		}
+		for (int j = 0; j < width; j++) {
+			moved += height-1 - positions[j];
+		}
 		height--;
+		Metrics.count(Metrics.Counter.BYTES_MOVED, 8*moved);
+		Metrics.stop(Metrics.Phase.REMOVAL, start);
+		Metrics.seamRemoved(Axis.HEIGHT.name());
 	}
 
 	/**
-	 * Get an array containing the image of a PNG file
+	 * Return a copy of the image without its first seams, read from a seam index map<br>
+	 * The map gives for each pixel the rank of the seam which removes it, so the image reduced by <b>count</b> seams
+	 * keeps on each line (or column for {@link Axis#HEIGHT}) the pixels of rank at least <b>count</b>, in their order.
+	 * The image is built in a single pass, whatever the number of seams.
+	 * @param axis Dimension reduced by the seams
+	 * @param ranks Rank of the seam of each pixel, line by line, as an array of <b>width*height</b> values
+	 * @param count Number of seams to remove
+	 * @return the reduced image, this image being unchanged
+	 * @throws IllegalArgumentException ranks.length &ne; width*height
+	 * @throws IllegalArgumentException count &lt; 0 or count &ge; the size of the image along the axis
+	 * @throws IllegalArgumentException a line (or column) does not contain <b>count</b> pixels of rank lower than <b>count</b>
+	 * @see cair.graph.SeamIndex
+	 **/
+	public Image removeSeams(Axis axis, int[] ranks, int count) {
+		if (ranks.length != width*height) {
+			throw new IllegalArgumentException("ranks.length = " + ranks.length + " must be " + width*height);
+		}
+		if (count < 0 || count >= axis.size(this)) {
+			throw new IllegalArgumentException("count = " + count + " must be >= 0 and < " + axis.size(this));
+		}
+		compact();
+		boolean columns = axis == Axis.WIDTH;
+		Image image = columns ? new Image(width - count, height, colorModel) : new Image(width, height - count, colorModel);
+		int length = columns ? height : width, size = columns ? width : height;
+		String name = columns ? "line " : "column ";
+		image.lines(length, k -> {
+			int kept = 0, i, j, target;
+			for (int p = 0; p < size; p++) {
+				i = columns ? k : p;
+				j = columns ? p : k;
+				if (ranks[i*width + j] >= count) {
+					if (kept == size - count) {
+						throw new IllegalArgumentException(name + k + " has less than " + count + " pixels of rank < " + count);
+					}
+					target = columns ? k*image.stride + kept : kept*image.stride + k;
+					image.pixels[target] = pixels[i*stride + j];
+					image.grey[target] = grey[i*stride + j];
+					kept++;
+				}
+			}
+			if (kept != size - count) {
+				throw new IllegalArgumentException(name + k + " has more than " + count + " pixels of rank < " + count);
+			}
+		});
+		image.lazyThreshold = lazyThreshold;
+		return image;
+	}
+
+	/**
+	 * Get an array containing the image of a PNG file<br>
+	 * The files ending with <b>.ppm</b> or <b>.pgm</b> are read through a memory mapping.
 	 * @param path Path to the input file
 	 * @return the array containing the image
 	 * @throws IOException Input/Output error
 	 * @see write
+	 * @see Image#readRaw
 	 **/
 	public static Image read(Path path) throws IOException {
-		BufferedImage image = ImageIO.read(new File(path.toString()));
-		return new Image(image);
+		long start = Metrics.start();
+		Image image = isRaw(path.getFileName().toString()) ? readRaw(path) : new Image(ImageIO.read(new File(path.toString())));
+		Metrics.stop(Metrics.Phase.DECODE, start);
+		return image;
 	}
 
 	/**
-	 * Save the color array as a PNG file
-	 * @param filename Ouput file name
+	 * Save the color array as a PNG file, or in the format of {@link Image#EXTENSION}
+	 * @param filename Ouput file name, without extension
 	 * @throws IOException Input/Output error
 	 * @see read
+	 * @see Image#write(String, String)
 	 **/
 	public void write(String filename) throws IOException {
-	    ImageIO.write(image.getSubimage(0, 0, width, height), EXTENSION, new File(filename + '.' + Image.EXTENSION));
+		write(filename, EXTENSION);
 	}
 
-	private static int[][] rgbToGrey(BufferedImage image) {
-		int width = image.getWidth(), height = image.getHeight();
-		int[][] grey = new int[height][width];
-		for (int i = 0; i < width; i++) {
-			for (int j = 0; j < height; j++) {
-				Color color = new Color(image.getRGB(i, j));
-				grey[j][i] = (color.getRed() + color.getGreen() + color.getBlue())/3;
+	/**
+	 * Save the color array in a given format<br>
+	 * The file is written with the color model of the file the image was read from,
+	 * so a grey, indexed or 16-bit image keeps its type, the samples being rounded to 8 bits like the pixels of the image.
+	 * When the format can not store this color model, such as an image with alpha in <b>jpg</b>, the file is written in 24-bit RGB.
+	 * With the <b>ppm</b> or <b>pgm</b> format, the file is written through a memory mapping.
+	 * @param filename Ouput file name, without extension
+	 * @param format Format of the file, such as <b>png</b>, which is also appended to the file name as its extension
+	 * @throws IOException Input/Output error, or no writer is available for the format
+	 * @see read
+	 * @see Image#writeRaw
+	 **/
+	public void write(String filename, String format) throws IOException {
+		long start = Metrics.start();
+		if (isRaw(format)) {
+			writeRaw(Path.of(filename + '.' + format));
+		} else {
+			compact();
+			BufferedImage image = (colorModel == null) ? new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB)
+					: new BufferedImage(colorModel, colorModel.createCompatibleWritableRaster(width, height), colorModel.isAlphaPremultiplied(), null);
+			image.setRGB(0, 0, width, height, pixels, 0, stride);
+			if (!ImageIO.write(image, format, new File(filename + '.' + format)) && colorModel != null) {
+				image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+				image.setRGB(0, 0, width, height, pixels, 0, stride);
+				if (!ImageIO.write(image, format, new File(filename + '.' + format))) {
+					throw new IOException("no writer for the format " + format);
+				}
+			}
+		}
+		Metrics.stop(Metrics.Phase.ENCODE, start);
+	}
+	
+	/*
+	 * Check if a file name or an extension is the one of a PPM or PGM file
+	 */
+	private static boolean isRaw(String name) {
+		String lower = name.toLowerCase(Locale.ROOT);
+		return lower.endsWith("ppm") || lower.endsWith("pgm");
+	}
+	
+	/**
+	 * Read a binary PPM (<b>P6</b>) or PGM (<b>P5</b>) file through a memory mapping<br>
+	 * The samples are read from the mapping straight into the pixels and the grey levels, without intermediate image,
+	 * the file being mapped by blocks of lines. The samples of 16 bits and the samples of a maximum value other than 255
+	 * are scaled to 8 bits.
+	 * @param path Path to the input file
+	 * @return the image
+	 * @throws IOException Input/Output error, or the file is not a binary PPM or PGM file
+	 * @see Image#writeRaw
+	 **/
+	public static Image readRaw(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), 1 << 16));
+			String magic = "" + (char) header.get() + (char) header.get();
+			if (!magic.equals("P5") && !magic.equals("P6")) {
+				throw new IOException(path + " is not a binary PPM or PGM file");
+			}
+			int width = headerValue(header), height = headerValue(header), maximum = headerValue(header);
+			if (width <= 0 || height <= 0 || maximum <= 0 || maximum > 65535) {
+				throw new IOException(path + " has an invalid header");
+			}
+			int channels = magic.equals("P6") ? 3 : 1, sampleSize = (maximum < 256) ? 1 : 2;
+			long lineSize = (long) width*channels*sampleSize, start = header.position(), linesPerBlock = Math.max(1, MAPPING/lineSize);
+			if (channel.size() < start + lineSize*height) {
+				throw new IOException(path + " is truncated");
 			}
+			Image image = new Image(width, height, null);
+			for (int first = 0; first < height; first += linesPerBlock) {
+				int top = first, lines = (int) Math.min(linesPerBlock, height - first);
+				MappedByteBuffer block = channel.map(FileChannel.MapMode.READ_ONLY, start + top*lineSize, lines*lineSize);
+				image.lines(lines, i -> image.readRawLine(block, (int) (i*lineSize), top + i, channels, sampleSize, maximum));
+			}
+			return image;
+		}
+	}
+	
+	/*
+	 * Read the next decimal value of a PPM or PGM header, skipping the blanks and the comments,
+	 * the blank following the value is consumed
+	 */
+	private static int headerValue(ByteBuffer header) throws IOException {
+		int value = 0, digits = 0;
+		char c;
+		while (header.hasRemaining()) {
+			c = (char) header.get();
+			if (c == '#' && digits == 0) {
+				while (header.hasRemaining() && header.get() != '\n') {
+				}
+			} else if (Character.isWhitespace(c)) {
+				if (digits > 0) {
+					return value;
+				}
+			} else if (c >= '0' && c <= '9' && digits < 9) {
+				value = 10*value + (c - '0');
+				digits++;
+			} else {
+				throw new IOException("invalid character '" + c + "' in the header");
+			}
+		}
+		throw new IOException("truncated header");
+	}
+	
+	/*
+	 * Copy a line of samples starting at the index offset of a mapping to the i-th line of the image
+	 */
+	private void readRawLine(ByteBuffer block, int offset, int i, int channels, int sampleSize, int maximum) {
+		int row = i*stride, index = offset, r, g, b;
+		for (int j = 0; j < width; j++) {
+			r = sample(block, index, sampleSize, maximum);
+			index += sampleSize;
+			if (channels == 1) {
+				g = r;
+				b = r;
+			} else {
+				g = sample(block, index, sampleSize, maximum);
+				b = sample(block, index + sampleSize, sampleSize, maximum);
+				index += 2*sampleSize;
+			}
+			pixels[row + j] = 0xFF000000 | r << 16 | g << 8 | b;
+		}
+		rgbToGrey(pixels, grey, row, width);
+	}
+	
+	/*
+	 * Read a sample of a PPM or PGM file, scaled to 8 bits
+	 */
+	private static int sample(ByteBuffer block, int index, int sampleSize, int maximum) {
+		int value = (sampleSize == 1) ? block.get(index) & 0xFF : (block.get(index) & 0xFF) << 8 | (block.get(index + 1) & 0xFF);
+		return (maximum == 255) ? value : Math.min(255, value*255/maximum);
+	}
+	
+	/**
+	 * Write the image as a binary PPM (<b>P6</b>) file, or as a PGM (<b>P5</b>) file of its grey levels if the name ends with <b>.pgm</b>,
+	 * through a memory mapping<br>
+	 * The samples are written from the arrays of the image straight into the mapping, the file being mapped by blocks of lines.
+	 * The transparency is not written.
+	 * @param path Path to the output file
+	 * @throws IOException Input/Output error
+	 * @see Image#readRaw
+	 **/
+	public void writeRaw(Path path) throws IOException {
+		compact();
+		boolean pgm = path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith("pgm");
+		int channels = pgm ? 1 : 3;
+		byte[] header = ((pgm ? "P5" : "P6") + "\n" + width + " " + height + "\n255\n").getBytes(StandardCharsets.US_ASCII);
+		long lineSize = (long) width*channels, linesPerBlock = Math.max(1, MAPPING/lineSize);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(header));
+			for (int first = 0; first < height; first += linesPerBlock) {
+				int top = first, lines = (int) Math.min(linesPerBlock, height - first);
+				MappedByteBuffer block = channel.map(FileChannel.MapMode.READ_WRITE, header.length + top*lineSize, lines*lineSize);
+				lines(lines, i -> writeRawLine(block, (int) (i*lineSize), top + i, pgm));
+			}
+		}
+	}
+	
+	/*
+	 * Copy the i-th line of the image to a mapping, starting at the index offset
+	 */
+	private void writeRawLine(ByteBuffer block, int offset, int i, boolean pgm) {
+		int row = i*stride, index = offset, rgb;
+		for (int j = 0; j < width; j++) {
+			if (pgm) {
+				block.put(index++, (byte) grey[row + j]);
+			} else {
+				rgb = pixels[row + j];
+				block.put(index++, (byte) (rgb >> 16));
+				block.put(index++, (byte) (rgb >> 8));
+				block.put(index++, (byte) rgb);
+			}
+		}
+	}
+
+	/*
+	 * Apply an action to each line of an image, in parallel if the image is large enough
+	 */
+	private void lines(int count, IntConsumer action) {
+		IntStream lines = IntStream.range(0, count);
+		if ((long) width*height >= PARALLEL_THRESHOLD) {
+			lines = lines.parallel();
+		}
+		lines.forEach(action);
+	}
+	
+	/*
+	 * Copy the packed ARGB values of the i-th line of an image at the index offset<br>
+	 * The bytes and ints of the usual image types are read directly in the raster,
+	 * the other types are converted by BufferedImage.getRGB
+	 */
+	private static void readLine(BufferedImage image, int[] pixels, int offset, int i, int width) {
+		WritableRaster raster = image.getRaster();
+		DataBuffer buffer = raster.getDataBuffer();
+		int type = image.getType(), start;
+		if (raster.getParent() != null || buffer.getOffset() != 0 || buffer.getNumBanks() != 1) {
+			type = BufferedImage.TYPE_CUSTOM;
+		}
+		switch (type) {
+		case BufferedImage.TYPE_INT_RGB:
+			int[] rgb = ((DataBufferInt) buffer).getData();
+			start = i*width;
+			for (int j = 0; j < width; j++) {
+				pixels[offset + j] = 0xFF000000 | rgb[start + j];
+			}
+			break;
+		case BufferedImage.TYPE_INT_ARGB:
+			System.arraycopy(((DataBufferInt) buffer).getData(), i*width, pixels, offset, width);
+			break;
+		case BufferedImage.TYPE_3BYTE_BGR:
+			byte[] bgr = ((DataBufferByte) buffer).getData();
+			start = 3*i*width;
+			for (int j = 0; j < width; j++, start += 3) {
+				pixels[offset + j] = 0xFF000000 | (bgr[start + 2] & 0xFF) << 16 | (bgr[start + 1] & 0xFF) << 8 | (bgr[start] & 0xFF);
+			}
+			break;
+		case BufferedImage.TYPE_4BYTE_ABGR:
+			byte[] abgr = ((DataBufferByte) buffer).getData();
+			start = 4*i*width;
+			for (int j = 0; j < width; j++, start += 4) {
+				pixels[offset + j] = (abgr[start] & 0xFF) << 24 | (abgr[start + 3] & 0xFF) << 16 | (abgr[start + 2] & 0xFF) << 8 | (abgr[start + 1] & 0xFF);
+			}
+			break;
+		default:
+			image.getRGB(0, i, width, 1, pixels, offset, width);
+		}
+	}
+	
+	/*
+	 * Compute the grey levels of the pixels of a line starting at the index offset
+	 */
+	private static void rgbToGrey(int[] pixels, int[] grey, int offset, int width) {
+		int rgb;
+		for (int j = offset; j < offset + width; j++) {
+			rgb = pixels[j];
+			grey[j] = (((rgb >> 16) & 0xFF) + ((rgb >> 8) & 0xFF) + (rgb & 0xFF))/3;
 		}
-		return grey;
 	}
 	
 }
@@ -0,0 +1,519 @@
+package cair.main;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import cair.graph.Axis;
+import cair.graph.CsrMaxFlow;
+import cair.graph.DynamicProgrammingSeamFinder;
+import cair.graph.Energy;
+import cair.graph.GradientSeamFinder;
+import cair.graph.GraphCutSeamFinder;
+import cair.graph.MaxFlow;
+import cair.graph.PushRelabel;
+import cair.graph.PyramidSeamFinder;
+import cair.graph.ResizeTask;
+import cair.graph.SeamCache;
+import cair.graph.SeamFinder;
+import cair.graph.SeamOrder;
+import cair.graph.Solver;
+import cair.graph.TiledSeamFinder;
+import cair.image.Image;
+import cair.metrics.Metrics;
+
+/**
+ * Headless command line resizing of a batch of images<br>
+ * The images go through a pipeline of three stages : decoding, carving and encoding,
+ * each stage having its own number of threads. The stages are linked by bounded queues,
+ * a stage waiting when the queue of the next stage is full,
+ * so the number of images in memory is bounded whatever the number of images of the batch.
+ * No AWT display class is used so it runs with <b>-Djava.awt.headless=true</b>.
+ **/
+public class Batch {
+
+	private static final String USAGE = String.join(System.lineSeparator(),
+			"usage : java cair.main.Batch [options] <input>...",
+			"  <input>                    image file, directory of images or glob pattern (*.png)",
+			"  -o, --output <directory>   output directory (required)",
+			"  -w, --width <pixels>       target width",
+			"  -c, --columns <pixels>     number of columns to remove",
+			"  -h, --height <pixels>      target height",
+			"  -l, --lines <pixels>       number of lines to remove",
+			"  --order <name>             order of the removals when both dimensions are reduced :",
+			"                             greedy (default) or optimal (slow, at most 4096 columns x lines)",
+			"  -k, --seams <count>        seams found by each search when a single dimension is reduced,",
+			"                             faster but of lower quality (default : 1)",
+			"  -s, --solver <name>        edmonds-karp, dinic, boykov-kolmogorov, push-relabel (default)",
+			"                             or dynamic-programming",
+			"  -e, --energy <name>        gradient (default), sobel, forward or entropy",
+			"  -f, --format <extension>   format of the output files and of the images of the input directories :",
+			"                             png (default), another format of ImageIO, or ppm and pgm which are",
+			"                             read and written through a memory mapping",
+			"  -t, --threads <count>      number of carving workers (default : number of processors)",
+			"  --decoders <count>         number of decoding workers (default : 1)",
+			"  --encoders <count>         number of encoding workers (default : 1)",
+			"  --queue <count>            images waiting between two stages (default : number of carving workers)",
+			"  --timeout <milliseconds>   maximum carving time of an image, the image failing when it is exceeded",
+			"  --sidecar                  when a single dimension is reduced with one seam per search, store the seams",
+			"                             of each image in a file next to it, and reuse them for the next sizes",
+			"                             (the timeout does not apply)",
+			"  --metrics                  print the time spent in each phase and the counters of the seam carving",
+			"  --warm-start               keep the flow between two columns, when a single dimension is reduced",
+			"  --pyramid <levels>         cut the graph at a resolution divided by 2^levels, then in a band",
+			"                             at each finer resolution (not with dynamic-programming)",
+			"  --tiles <lines>            cut strips of lines in parallel and join their columns, for the images",
+			"                             whose graph does not fit in memory (not with dynamic-programming) ;",
+			"                             the energy of the columns is often 2 to 3 times the lowest one");
+
+	private final Path output;
+	private final String format;
+	private final int width;
+	private final int columns;
+	private final int height;
+	private final int lines;
+	private final SeamOrder order;
+	private final int seams;
+	private final Supplier<SeamFinder> finders;
+	private final long timeout;
+	private final SeamCache cache;
+	private final AtomicInteger failures = new AtomicInteger();
+
+	/*
+	 * Image going through the pipeline, the end of a stage being marked by a job without path
+	 */
+	private static class Job {
+
+		private static final Job END = new Job(null);
+
+		private final Path path;
+		private Image image;
+		private int initialWidth;
+		private int initialHeight;
+		private long read;
+		private long carve;
+
+		private Job(Path path) {
+			this.path = path;
+		}
+
+	}
+
+	private Batch(Path output, String format, int width, int columns, int height, int lines, SeamOrder order, int seams, Supplier<SeamFinder> finders, long timeout, SeamCache cache) {
+		this.output = output;
+		this.format = format;
+		this.width = width;
+		this.columns = columns;
+		this.height = height;
+		this.lines = lines;
+		this.order = order;
+		this.seams = seams;
+		this.finders = finders;
+		this.timeout = timeout;
+		this.cache = cache;
+	}
+
+	public static void main(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+		List<String> inputs = new ArrayList<>();
+		Path output = null;
+		int width = -1, columns = -1, height = -1, lines = -1, seams = 1, pyramid = 0, tiles = 0, threads = Runtime.getRuntime().availableProcessors();
+		int decoders = 1, encoders = 1, queue = -1;
+		long timeout = 0;
+		SeamOrder order = SeamOrder.GREEDY;
+		Energy energy = Energy.GRADIENT;
+		String solver = "push-relabel", format = Image.EXTENSION;
+		boolean warmStart = false, sidecar = false;
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+				case "-o": case "--output":
+					output = Paths.get(args[++i]);
+					break;
+				case "-w": case "--width":
+					width = Integer.parseInt(args[++i]);
+					break;
+				case "-c": case "--columns":
+					columns = Integer.parseInt(args[++i]);
+					break;
+				case "-h": case "--height":
+					height = Integer.parseInt(args[++i]);
+					break;
+				case "-l": case "--lines":
+					lines = Integer.parseInt(args[++i]);
+					break;
+				case "--order":
+					order = SeamOrder.valueOf(args[++i].toUpperCase(Locale.ROOT));
+					break;
+				case "-k": case "--seams":
+					seams = Integer.parseInt(args[++i]);
+					break;
+				case "-s": case "--solver":
+					solver = args[++i];
+					break;
+				case "-e": case "--energy":
+					energy = Energy.valueOf(args[++i].toUpperCase(Locale.ROOT));
+					break;
+				case "-f": case "--format":
+					format = args[++i];
+					break;
+				case "-t": case "--threads":
+					threads = Integer.parseInt(args[++i]);
+					break;
+				case "--decoders":
+					decoders = Integer.parseInt(args[++i]);
+					break;
+				case "--encoders":
+					encoders = Integer.parseInt(args[++i]);
+					break;
+				case "--queue":
+					queue = Integer.parseInt(args[++i]);
+					break;
+				case "--timeout":
+					timeout = Long.parseLong(args[++i]);
+					break;
+				case "--sidecar":
+					sidecar = true;
+					break;
+				case "--metrics":
+					Metrics.setEnabled(true);
+					break;
+				case "--warm-start":
+					warmStart = true;
+					break;
+				case "--pyramid":
+					pyramid = Integer.parseInt(args[++i]);
+					break;
+				case "--tiles":
+					tiles = Integer.parseInt(args[++i]);
+					break;
+				default:
+					if (args[i].startsWith("-")) {
+						throw new IllegalArgumentException("unknown option " + args[i]);
+					}
+					inputs.add(args[i]);
+				}
+			}
+			if (output == null || inputs.isEmpty() || (width >= 0 && columns >= 0) || (height >= 0 && lines >= 0)
+					|| (width < 0 && columns < 0 && height < 0 && lines < 0) || seams <= 0 || threads <= 0
+					|| decoders <= 0 || encoders <= 0 || queue == 0 || queue < -1 || timeout < 0) {
+				throw new IllegalArgumentException("missing or conflicting arguments");
+			}
+			if ((width >= 0 || columns >= 0) && (height >= 0 || lines >= 0)) {
+				/* the axis changes between two searches, or the searches are made on several images for the optimal order */
+				warmStart = false;
+			}
+			seamFinder(solver, warmStart, pyramid, tiles, ForkJoinPool.commonPool());
+		} catch (RuntimeException e) {
+			System.err.println("error : " + e.getMessage());
+			System.err.println(USAGE);
+			System.exit(2);
+			return;
+		}
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			Files.createDirectories(output);
+			Supplier<SeamFinder> finders = finders(solver, warmStart, pyramid, tiles, energy, pool);
+			SeamCache cache = sidecar ? new SeamCache(finders, String.join(" ", solver, energy.name(), String.valueOf(warmStart), String.valueOf(pyramid), String.valueOf(tiles))) : null;
+			int failures = new Batch(output, format, width, columns, height, lines, order, seams, finders, timeout, cache).run(images(inputs, format), decoders, threads, encoders, (queue > 0) ? queue : threads);
+			System.exit(failures == 0 ? 0 : 1);
+		} catch (IOException | InterruptedException e) {
+			System.err.println("error : " + e.getMessage());
+			System.exit(1);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/*
+	 * Process the images through the three stages, each stage putting its jobs in the bounded queue of the next one,
+	 * then marking its end with one END job for each worker of the next stage
+	 */
+	private int run(List<Path> images, int decoders, int carvers, int encoders, int capacity) throws InterruptedException {
+		Queue<Path> paths = new ConcurrentLinkedQueue<>(images);
+		BlockingQueue<Job> decoded = new ArrayBlockingQueue<>(capacity), carved = new ArrayBlockingQueue<>(capacity);
+		ExecutorService decoding = Executors.newFixedThreadPool(decoders);
+		ExecutorService carving = Executors.newFixedThreadPool(carvers);
+		ExecutorService encoding = Executors.newFixedThreadPool(encoders);
+		long start = System.nanoTime();
+		for (int i = 0; i < decoders; i++) {
+			decoding.execute(() -> {
+				Path path;
+				try {
+					while ((path = paths.poll()) != null) {
+						Job job = decode(path);
+						if (job != null) {
+							decoded.put(job);
+						}
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+		}
+		for (int i = 0; i < carvers; i++) {
+			carving.execute(() -> stage(decoded, carved, this::carve));
+		}
+		for (int i = 0; i < encoders; i++) {
+			encoding.execute(() -> stage(carved, null, this::encode));
+		}
+		finish(decoding, decoded, carvers);
+		finish(carving, carved, encoders);
+		finish(encoding, null, 0);
+		System.out.printf(Locale.ROOT, "%d image(s), %d failure(s), %.1f s%n", images.size(), failures.get(), (System.nanoTime() - start)/1e9);
+		if (Metrics.isEnabled()) {
+			Metrics.Sample totals = Metrics.totals();
+			for (Metrics.Phase phase : Metrics.Phase.values()) {
+				System.out.printf(Locale.ROOT, "%-18s %10.1f ms%n", phase.name().toLowerCase(Locale.ROOT), totals.nanos(phase)/1e6);
+			}
+			for (Metrics.Counter counter : Metrics.Counter.values()) {
+				System.out.printf(Locale.ROOT, "%-18s %13d%n", counter.name().toLowerCase(Locale.ROOT), totals.get(counter));
+			}
+		}
+		return failures.get();
+	}
+
+	/*
+	 * Process the jobs of a queue until its END job, putting the successful jobs in the next queue
+	 */
+	private void stage(BlockingQueue<Job> input, BlockingQueue<Job> output, Predicate<Job> task) {
+		Job job;
+		try {
+			while ((job = input.take()) != Job.END) {
+				if (task.test(job) && output != null) {
+					output.put(job);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/*
+	 * Wait for the workers of a stage, then tell each worker of the next stage that no job follows
+	 */
+	private static void finish(ExecutorService workers, BlockingQueue<Job> output, int next) throws InterruptedException {
+		workers.shutdown();
+		workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		for (int i = 0; i < next; i++) {
+			output.put(Job.END);
+		}
+	}
+
+	private Job decode(Path path) {
+		Job job = new Job(path);
+		try {
+			long start = System.nanoTime();
+			job.image = Image.read(path);
+			job.initialWidth = job.image.getWidth();
+			job.initialHeight = job.image.getHeight();
+			job.read = System.nanoTime() - start;
+			return job;
+		} catch (IOException | RuntimeException e) {
+			fail(path, e);
+			return null;
+		}
+	}
+
+	/*
+	 * Carve the image of a job in a task, cancelled if it exceeds the timeout
+	 */
+	private boolean carve(Job job) {
+		ResizeTask task = null;
+		try {
+			long start = System.nanoTime();
+			Image image = job.image;
+			int columnCount = (columns >= 0) ? columns : (width >= 0) ? job.initialWidth - width : 0;
+			int lineCount = (lines >= 0) ? lines : (height >= 0) ? job.initialHeight - height : 0;
+			if (columnCount < 0 || (columnCount > 0 && columnCount >= job.initialWidth - 1)) {
+				throw new IllegalArgumentException("can not remove " + columnCount + " columns from a width of " + job.initialWidth);
+			}
+			if (lineCount < 0 || (lineCount > 0 && lineCount >= job.initialHeight - 1)) {
+				throw new IllegalArgumentException("can not remove " + lineCount + " lines from a height of " + job.initialHeight);
+			}
+			if (cache != null && seams == 1 && (lineCount == 0) != (columnCount == 0)) {
+				job.image = (lineCount == 0) ? cache.resize(job.path, image, columnCount, Axis.WIDTH) : cache.resize(job.path, image, lineCount, Axis.HEIGHT);
+				job.carve = System.nanoTime() - start;
+				return true;
+			}
+			if (lineCount == 0) {
+				task = new ResizeTask(image, columnCount, Axis.WIDTH, seams, finders.get(), null);
+			} else if (columnCount == 0) {
+				task = new ResizeTask(image, lineCount, Axis.HEIGHT, seams, finders.get(), null);
+			} else {
+				task = new ResizeTask(image, columnCount, lineCount, finders.get(), order, null);
+			}
+			if (timeout > 0) {
+				task.setTimeout(timeout, TimeUnit.MILLISECONDS);
+			}
+			task.run();
+			job.image = task.get();
+			job.carve = System.nanoTime() - start;
+			return true;
+		} catch (CancellationException e) {
+			fail(job.path, (task != null && task.isExpired()) ? new CancellationException("timeout of " + timeout + " ms exceeded") : e);
+			return false;
+		} catch (ExecutionException e) {
+			fail(job.path, e.getCause());
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			fail(job.path, e);
+			return false;
+		} catch (IOException | RuntimeException e) {
+			fail(job.path, e);
+			return false;
+		}
+	}
+
+	private boolean encode(Job job) {
+		String name = job.path.getFileName().toString();
+		if (name.lastIndexOf('.') > 0) {
+			name = name.substring(0, name.lastIndexOf('.'));
+		}
+		try {
+			long start = System.nanoTime();
+			job.image.write(output.resolve(name).toString(), format);
+			System.out.printf(Locale.ROOT, "%s : %dx%d -> %dx%d, read %.0f ms, carve %.0f ms, write %.0f ms%n",
+					job.path, job.initialWidth, job.initialHeight, job.image.getWidth(), job.image.getHeight(),
+					job.read/1e6, job.carve/1e6, (System.nanoTime() - start)/1e6);
+			return true;
+		} catch (IOException | RuntimeException e) {
+			fail(job.path, e);
+			return false;
+		}
+	}
+
+	private void fail(Path path, Throwable e) {
+		System.err.println(path + " : " + e);
+		failures.incrementAndGet();
+	}
+
+	/**
+	 * Create the seam finder corresponding to a solver name
+	 * @param solver Name of the solver, the name of a {@link Solver} in lower case with dashes or <b>dynamic-programming</b>
+	 * @param warmStart <b>true</b> to keep the flow between two columns
+	 * @param pool Thread pool of the parallel solver
+	 * @return the seam finder
+	 * @throws IllegalArgumentException unknown solver name
+	 **/
+	public static SeamFinder seamFinder(String solver, boolean warmStart, ForkJoinPool pool) {
+		return seamFinder(solver, warmStart, 0, 0, pool);
+	}
+
+	/**
+	 * Create the seam finder corresponding to a solver name, searching the columns in a pyramid of the gradient or in strips
+	 * @param solver Name of the solver, the name of a {@link Solver} in lower case with dashes or <b>dynamic-programming</b>
+	 * @param warmStart <b>true</b> to keep the flow between two columns, ignored with a pyramid or strips
+	 * @param pyramid Number of levels of the pyramid, <b>0</b> to cut the whole graph
+	 * @param tiles Number of lines of the strips cut in parallel, <b>0</b> to cut the whole graph
+	 * @param pool Thread pool of the parallel solver and of the strips
+	 * @return the seam finder
+	 * @throws IllegalArgumentException unknown solver name
+	 * @throws IllegalArgumentException pyramid &lt; 0 or tiles &lt; 0
+	 * @throws IllegalArgumentException pyramid &gt; 0 or tiles &gt; 0 with <b>dynamic-programming</b>, or both
+	 * @see PyramidSeamFinder
+	 * @see TiledSeamFinder
+	 **/
+	public static SeamFinder seamFinder(String solver, boolean warmStart, int pyramid, int tiles, ForkJoinPool pool) {
+		if (pyramid < 0) {
+			throw new IllegalArgumentException("pyramid = " + pyramid + " must be >= 0");
+		}
+		if (tiles < 0) {
+			throw new IllegalArgumentException("tiles = " + tiles + " must be >= 0");
+		}
+		if (pyramid > 0 && tiles > 0) {
+			throw new IllegalArgumentException("the pyramid and the strips can not be combined");
+		}
+		if (solver.equals("dynamic-programming")) {
+			if (pyramid > 0 || tiles > 0) {
+				throw new IllegalArgumentException("the pyramid and the strips need a maximum flow solver");
+			}
+			return new DynamicProgrammingSeamFinder();
+		}
+		Solver value = Solver.valueOf(solver.toUpperCase(Locale.ROOT).replace('-', '_'));
+		if (pyramid > 0) {
+			return new PyramidSeamFinder(maxFlow(value, pool), maxFlow(value, pool), pyramid, PyramidSeamFinder.MARGIN);
+		}
+		if (tiles > 0) {
+			return new TiledSeamFinder(() -> maxFlow(value, pool), tiles, TiledSeamFinder.OVERLAP, pool);
+		}
+		MaxFlow maxFlow = maxFlow(value, pool);
+		if (maxFlow instanceof CsrMaxFlow) {
+			((CsrMaxFlow) maxFlow).setWarmStart(warmStart);
+		}
+		return new GraphCutSeamFinder(maxFlow);
+	}
+
+	private static MaxFlow maxFlow(Solver solver, ForkJoinPool pool) {
+		return (solver == Solver.PUSH_RELABEL) ? new PushRelabel(pool) : solver.newInstance();
+	}
+
+	/*
+	 * Return a supplier of seam finders, each worker needs its own seam finder
+	 */
+	private static Supplier<SeamFinder> finders(String solver, boolean warmStart, int pyramid, int tiles, Energy energy, ForkJoinPool pool) {
+		return () -> {
+			SeamFinder finder = seamFinder(solver, warmStart, pyramid, tiles, pool);
+			if (finder instanceof GradientSeamFinder) {
+				((GradientSeamFinder) finder).setEnergyFunction(energy);
+			}
+			return finder;
+		};
+	}
+
+	/*
+	 * Expand the inputs : a directory gives its images of the format, whatever the case of their extension,
+	 * a pattern gives the matching files of its directory
+	 */
+	private static List<Path> images(List<String> inputs, String format) throws IOException {
+		List<Path> images = new ArrayList<>();
+		String extension = "." + format.toLowerCase(Locale.ROOT);
+		for (String input : inputs) {
+			if (input.contains("*") || input.contains("?")) {
+				Path pattern = Paths.get(input);
+				Path directory = (pattern.getParent() != null) ? pattern.getParent() : Paths.get(".");
+				PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern.getFileName());
+				try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+					for (Path path : stream) {
+						if (Files.isRegularFile(path) && matcher.matches(path.getFileName())) {
+							images.add(path);
+						}
+					}
+				}
+			} else if (Files.isDirectory(Paths.get(input))) {
+				try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(input),
+						path -> path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(extension))) {
+					for (Path path : stream) {
+						images.add(path);
+					}
+				}
+			} else {
+				images.add(Paths.get(input));
+			}
+		}
+		images.sort(null);
+		return images;
+	}
+
+}
@@ -6,6 +6,10 @@ public class Main {
 
 	public static void main(String[] args) {
 	
+		if (args.length > 0) {
+			Batch.main(args);
+			return;
+		}
 		new Frame();
 		
 	}
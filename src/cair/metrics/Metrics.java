@@ -0,0 +1,363 @@
+package cair.metrics;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Counters and timers of the seam carving<br>
+ * The measures are disabled by default and each instrumented method then only reads a flag.
+ * They are enabled by a listener, by {@link Metrics#setEnabled} or by the system property <b>cair.metrics=true</b>.<br>
+ * Each thread accumulates the measures of the seam it is processing, the accumulated measures being given to the listeners
+ * and committed as a <b>cair.Seam</b> event of the Java Flight Recorder when the seam is removed,
+ * then added to the totals of all the threads. Each timed phase is also committed as a <b>cair.Phase</b> event.
+ * The work done in the threads of a parallel algorithm is not counted.<br>
+ * This package depends on no other package of the program, which report their measures to it.
+ * @see cair.image.Image#removePixelsWidth
+ * @see cair.image.Image#removePixelsHeight
+ **/
+public final class Metrics {
+
+	/**
+	 * Timed phases
+	 **/
+	public enum Phase {
+
+		/**
+		 * Decoding of an image file
+		 * @see cair.image.Image#read
+		 **/
+		DECODE,
+
+		/**
+		 * Computation and update of the energy
+		 * @see cair.graph.EnergyFunction
+		 **/
+		ENERGY,
+
+		/**
+		 * Search of the seams, including the graph and the flow
+		 * @see cair.graph.SeamFinder#find(cair.image.Image, cair.graph.Axis)
+		 **/
+		SEARCH,
+
+		/**
+		 * Construction of the graphs
+		 * @see cair.graph.SeamCarving#toGraph(int[][], int, int, cair.graph.FlowGraph)
+		 **/
+		GRAPH,
+
+		/**
+		 * Computation of the maximum flows
+		 * @see cair.graph.MaxFlow#minCut
+		 **/
+		FLOW,
+
+		/**
+		 * Removal of the pixels of the seams, including the shifts of the arrays
+		 * @see cair.graph.Axis#remove
+		 **/
+		REMOVAL,
+
+		/**
+		 * Encoding of an image file
+		 * @see cair.image.Image#write
+		 **/
+		ENCODE
+
+	}
+
+	/**
+	 * Counted quantities
+	 **/
+	public enum Counter {
+
+		/**
+		 * Augmenting paths of the <b>Ford-Fulkerson</b>, <b>Dinic</b> and <b>Boykov-Kolmogorov</b> algorithms
+		 **/
+		AUGMENTATIONS,
+
+		/**
+		 * Vertices reached by the breadth-first searches of the maximum flow algorithms,
+		 * or activated in the search trees of the <b>Boykov-Kolmogorov</b> algorithm
+		 **/
+		VERTICES_VISITED,
+
+		/**
+		 * Value of the maximum flows
+		 **/
+		FLOW,
+
+		/**
+		 * Bytes of pixels and grey levels moved by the removals
+		 **/
+		BYTES_MOVED
+
+	}
+
+	/**
+	 * Measures of a seam, or totals of all the seams
+	 **/
+	public static final class Sample {
+
+		private final long[] counters;
+		private final long[] nanos;
+
+		private Sample(long[] counters, long[] nanos) {
+			this.counters = counters;
+			this.nanos = nanos;
+		}
+
+		/**
+		 * Return the value of a counter
+		 * @param counter Counter
+		 * @return the value of the counter
+		 **/
+		public long get(Counter counter) {
+			return counters[counter.ordinal()];
+		}
+
+		/**
+		 * Return the time spent in a phase
+		 * @param phase Phase
+		 * @return the time spent in the phase, in nanoseconds
+		 **/
+		public long nanos(Phase phase) {
+			return nanos[phase.ordinal()];
+		}
+
+	}
+
+	/**
+	 * Notification function of the measures of each seam
+	 **/
+	@FunctionalInterface
+	public interface Listener {
+
+		/**
+		 * Called in the thread which removed a seam
+		 * @param axis Name of the dimension reduced by the seam
+		 * @param seam Measures accumulated by the thread since its previous seam
+		 **/
+		void seamRemoved(String axis, Sample seam);
+
+	}
+
+	@Name("cair.Seam")
+	@Label("Seam")
+	@Category("Content Aware Image Resizing")
+	@Description("Measures of a removed seam")
+	static class SeamEvent extends Event {
+		@Label("Axis")
+		String axis;
+		@Label("Augmentations")
+		long augmentations;
+		@Label("Vertices Visited")
+		long verticesVisited;
+		@Label("Flow")
+		long flow;
+		@Label("Bytes Moved")
+		long bytesMoved;
+		@Label("Energy")
+		@Timespan
+		long energy;
+		@Label("Search")
+		@Timespan
+		long search;
+		@Label("Graph")
+		@Timespan
+		long graph;
+		@Label("Maximum Flow")
+		@Timespan
+		long maxFlow;
+		@Label("Removal")
+		@Timespan
+		long removal;
+	}
+
+	@Name("cair.Phase")
+	@Label("Phase")
+	@Category("Content Aware Image Resizing")
+	@Description("Time spent in a phase of the seam carving")
+	static class PhaseEvent extends Event {
+		@Label("Phase")
+		String phase;
+		@Label("Elapsed")
+		@Timespan
+		long elapsed;
+	}
+
+	private static final List<Listener> LISTENERS = new CopyOnWriteArrayList<>();
+	private static final LongAdder[] COUNTERS = adders(Counter.values().length);
+	private static final LongAdder[] NANOS = adders(Phase.values().length);
+	private static final ThreadLocal<long[]> SEAM_COUNTERS = ThreadLocal.withInitial(() -> new long[Counter.values().length]);
+	private static final ThreadLocal<long[]> SEAM_NANOS = ThreadLocal.withInitial(() -> new long[Phase.values().length]);
+	private static final long ORIGIN = System.nanoTime();
+	private static volatile boolean enabled = Boolean.getBoolean("cair.metrics");
+
+	private Metrics() {
+	}
+
+	private static LongAdder[] adders(int count) {
+		LongAdder[] adders = new LongAdder[count];
+		for (int i = 0; i < count; i++) {
+			adders[i] = new LongAdder();
+		}
+		return adders;
+	}
+
+	/**
+	 * Enable or disable the measures
+	 * @param enabled <b>true</b> to measure, <b>false</b> to only read a flag in the instrumented methods
+	 * @see Metrics#isEnabled
+	 **/
+	public static void setEnabled(boolean enabled) {
+		Metrics.enabled = enabled;
+	}
+
+	/**
+	 * Check if the measures are enabled
+	 * @return <b>true</b> if the measures are enabled, <b>false</b> otherwise
+	 * @see Metrics#setEnabled
+	 **/
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Add a listener notified of the measures of each seam, the measures being enabled
+	 * @param listener Listener
+	 * @see Metrics#removeListener
+	 **/
+	public static void addListener(Listener listener) {
+		LISTENERS.add(listener);
+		enabled = true;
+	}
+
+	/**
+	 * Remove a listener, the measures staying enabled
+	 * @param listener Listener
+	 * @see Metrics#addListener
+	 **/
+	public static void removeListener(Listener listener) {
+		LISTENERS.remove(listener);
+	}
+
+	/**
+	 * Return the totals of the measures of all the threads since the start or the last reset
+	 * @return the totals, the measures of a seam being added when it is removed
+	 * @see Metrics#reset
+	 **/
+	public static Sample totals() {
+		long[] counters = new long[COUNTERS.length], nanos = new long[NANOS.length];
+		for (int i = 0; i < counters.length; i++) {
+			counters[i] = COUNTERS[i].sum();
+		}
+		for (int i = 0; i < nanos.length; i++) {
+			nanos[i] = NANOS[i].sum();
+		}
+		return new Sample(counters, nanos);
+	}
+
+	/**
+	 * Reset the totals of the measures
+	 * @see Metrics#totals
+	 **/
+	public static void reset() {
+		for (LongAdder adder : COUNTERS) {
+			adder.reset();
+		}
+		for (LongAdder adder : NANOS) {
+			adder.reset();
+		}
+	}
+
+	/**
+	 * Return the start time of a timed phase
+	 * @return the time elapsed since the loading of this class in nanoseconds, <b>-1</b> if the measures are disabled
+	 * @see Metrics#stop
+	 **/
+	public static long start() {
+		return enabled ? System.nanoTime() - ORIGIN : -1;
+	}
+
+	/**
+	 * Add the time elapsed since the start of a phase to the measures of the current thread
+	 * @param phase Timed phase
+	 * @param start Value returned by {@link Metrics#start} at the start of the phase, the phase being ignored if it is negative
+	 **/
+	public static void stop(Phase phase, long start) {
+		if (!enabled || start < 0) {
+			return;
+		}
+		long elapsed = System.nanoTime() - ORIGIN - start;
+		PhaseEvent event = new PhaseEvent();
+		if (event.shouldCommit()) {
+			event.phase = phase.name();
+			event.elapsed = elapsed;
+			event.commit();
+		}
+		if (phase == Phase.DECODE || phase == Phase.ENCODE) {
+			NANOS[phase.ordinal()].add(elapsed);
+		} else {
+			SEAM_NANOS.get()[phase.ordinal()] += elapsed;
+		}
+	}
+
+	/**
+	 * Add a value to a counter of the current thread
+	 * @param counter Counter
+	 * @param value Value to add
+	 **/
+	public static void count(Counter counter, long value) {
+		if (enabled) {
+			SEAM_COUNTERS.get()[counter.ordinal()] += value;
+		}
+	}
+
+	/**
+	 * Close the measures of the seam processed by the current thread : notify the listeners,
+	 * commit the event, add the measures to the totals and start the measures of the next seam
+	 * @param axis Name of the dimension reduced by the seam
+	 **/
+	public static void seamRemoved(String axis) {
+		if (!enabled) {
+			return;
+		}
+		long[] counters = SEAM_COUNTERS.get(), nanos = SEAM_NANOS.get();
+		Sample seam = new Sample(counters.clone(), nanos.clone());
+		SeamEvent event = new SeamEvent();
+		if (event.shouldCommit()) {
+			event.axis = axis;
+			event.augmentations = seam.get(Counter.AUGMENTATIONS);
+			event.verticesVisited = seam.get(Counter.VERTICES_VISITED);
+			event.flow = seam.get(Counter.FLOW);
+			event.bytesMoved = seam.get(Counter.BYTES_MOVED);
+			event.energy = seam.nanos(Phase.ENERGY);
+			event.search = seam.nanos(Phase.SEARCH);
+			event.graph = seam.nanos(Phase.GRAPH);
+			event.maxFlow = seam.nanos(Phase.FLOW);
+			event.removal = seam.nanos(Phase.REMOVAL);
+			event.commit();
+		}
+		for (int i = 0; i < counters.length; i++) {
+			COUNTERS[i].add(counters[i]);
+			counters[i] = 0;
+		}
+		for (int i = 0; i < nanos.length; i++) {
+			NANOS[i].add(nanos[i]);
+			nanos[i] = 0;
+		}
+		for (Listener listener : LISTENERS) {
+			listener.seamRemoved(axis, seam);
+		}
+	}
+
+}